@@ -0,0 +1,149 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.EsgRule;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores the same batch of transactions through each ESG scoring path:
+ * <ul>
+ *     <li>{@code legacyMathLog10} - the original inline formula over entities, calling {@code Math.log10} per row</li>
+ *     <li>{@code engineFacts} - the rule engine with no rules, collecting {@link EsgFacts} per row</li>
+ *     <li>{@code kernel} - {@link EsgScoreKernel} over primitive columns</li>
+ *     <li>{@code engineTenRules} - the rule engine with ten compiled rules, refilling one {@link EsgFacts} per row
+ *     as {@link EsgRuleEngine#score(Transaction)} does</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EsgScoringBenchmark {
+
+    private static final int BATCH = 4096;
+    private static final double WEIGHT = 1.2;
+
+    private Transaction[] transactions;
+    private int[] amounts;
+    private int[] tierOrdinals;
+    private boolean[] sameRegion;
+
+    private EsgRuleEngine emptyEngine;
+    private EsgRuleEngine ruleEngine;
+    private final EsgFacts facts = new EsgFacts();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] regions = {"Seoul", "Busan", "Incheon", null};
+        transactions = new Transaction[BATCH];
+        amounts = new int[BATCH];
+        tierOrdinals = new int[BATCH];
+        sameRegion = new boolean[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            Merchant.EsgTier tier = Merchant.EsgTier.values()[random.nextInt(4)];
+            String merchantRegion = regions[random.nextInt(regions.length)];
+            String userRegion = regions[random.nextInt(regions.length)];
+            Merchant merchant = Merchant.builder().id((long) i).categoryCode("CAFE").region(merchantRegion).esgTier(tier).build();
+            AppUser user = AppUser.builder().id((long) i).region(userRegion).build();
+            transactions[i] = Transaction.builder().user(user).merchant(merchant).amount(random.nextInt(200_000))
+                    .txTime(LocalDateTime.of(2025, 10, 1, random.nextInt(24), 0)).source(Transaction.Source.MOCK).build();
+
+            amounts[i] = transactions[i].getAmount();
+            tierOrdinals[i] = EsgScoreKernel.tierOrdinal(tier);
+            sameRegion[i] = userRegion != null && userRegion.equals(merchantRegion);
+        }
+
+        emptyEngine = new EsgRuleEngine(null, null);
+        emptyEngine.install(List.of());
+
+        List<EsgRule> rules = new ArrayList<>();
+        rules.add(rule(1, "{\"field\": \"tier\", \"value\": \"A\"}", "score + 5"));
+        rules.add(rule(2, "{\"field\": \"amount\", \"op\": \"gte\", \"value\": 100000}", "min(score, 60)"));
+        rules.add(rule(3, "{\"field\": \"sameRegion\", \"value\": true}", "score * 1.1"));
+        rules.add(rule(4, "{\"field\": \"hour\", \"op\": \"in\", \"value\": [7, 8, 9]}", "score + 2"));
+        rules.add(rule(5, "{\"field\": \"category\", \"value\": \"FUEL\"}", "0"));
+        rules.add(rule(6, "{\"not\": {\"field\": \"tier\", \"value\": \"D\"}}", "score + tierBonus"));
+        rules.add(rule(7, "{\"any\": [{\"field\": \"amount\", \"op\": \"lt\", \"value\": 1000}, {\"field\": \"hour\", \"op\": \"gte\", \"value\": 22}]}", "score - 1"));
+        rules.add(rule(8, null, "max(score, 0)"));
+        rules.add(rule(9, "{\"field\": \"merchantRegion\", \"value\": \"Seoul\"}", "score + regionalBonus"));
+        rules.add(rule(10, "{\"all\": [{\"field\": \"tier\", \"op\": \"in\", \"value\": [\"A\", \"B\"]}, {\"field\": \"amount\", \"op\": \"gte\", \"value\": 5000}]}", "floor(score * 1.05)"));
+        ruleEngine = new EsgRuleEngine(null, null);
+        ruleEngine.install(rules);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long legacyMathLog10() {
+        long total = 0;
+        for (Transaction transaction : transactions) {
+            Merchant merchant = transaction.getMerchant();
+            double base = Math.floor(10 * Math.log10(transaction.getAmount() + 10));
+            String userRegion = transaction.getUser().getRegion();
+            int regionalBonus = (userRegion != null && userRegion.equals(merchant.getRegion())) ? 2 : 0;
+            int tierBonus = switch (merchant.getEsgTier()) {
+                case A -> 3;
+                case B -> 2;
+                case C -> 1;
+                case D -> 0;
+            };
+            total += Math.round(base * WEIGHT + regionalBonus + tierBonus);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long engineFacts() {
+        long total = 0;
+        for (Transaction transaction : transactions) {
+            total += emptyEngine.score(EsgFacts.of(transaction, WEIGHT));
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long kernel() {
+        long total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            total += EsgScoreKernel.score(amounts[i], WEIGHT, tierOrdinals[i], sameRegion[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long engineTenRules() {
+        long total = 0;
+        for (Transaction transaction : transactions) {
+            total += ruleEngine.score(facts.load(transaction, WEIGHT));
+        }
+        return total;
+    }
+
+    private static EsgRule rule(long id, String conditionJson, String scoreFormula) {
+        return EsgRule.builder().id(id).name("rule-" + id).conditionJson(conditionJson).scoreFormula(scoreFormula).build();
+    }
+}
@@ -0,0 +1,63 @@
+package app.greenpoint.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the KakaoPay gateway: a dedicated, bounded connection pool with connect,
+ * pool-acquire and read/write timeouts, so a slow gateway cannot hold callers indefinitely.
+ */
+@Configuration
+public class KakaoPayClientConfig {
+
+    @Value("${kakaopay.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${kakaopay.http.pending-acquire-timeout:2s}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${kakaopay.http.max-idle-time:30s}")
+    private Duration maxIdleTime;
+
+    @Value("${kakaopay.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${kakaopay.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider kakaoPayConnectionProvider() {
+        return ConnectionProvider.builder("kakaopay")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .build();
+    }
+
+    @Bean
+    public WebClient kakaoPayWebClient(WebClient.Builder webClientBuilder, ConnectionProvider kakaoPayConnectionProvider) {
+        return buildWebClient(webClientBuilder, kakaoPayConnectionProvider, connectTimeout, readTimeout);
+    }
+
+    public static WebClient buildWebClient(WebClient.Builder webClientBuilder, ConnectionProvider connectionProvider,
+                                           Duration connectTimeout, Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .doOnConnected(connection -> connection
+                        .addHandlerLast(new ReadTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS)));
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
@@ -0,0 +1,120 @@
+package app.greenpoint.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bulkhead, circuit breaker and retry policies guarding calls to the KakaoPay gateway.
+ * Only transport failures and 5xx responses count against the breaker; 4xx responses are the caller's
+ * problem, not a sign the gateway is unhealthy. Approval is retried only when the request never left this
+ * service, since a re-sent approve the gateway already processed is rejected; read-only order lookups are
+ * retried on any gateway failure.
+ */
+@Configuration
+public class KakaoPayResilienceConfig {
+
+    @Value("${kakaopay.resilience.max-concurrent-calls:25}")
+    private int maxConcurrentCalls;
+
+    @Value("${kakaopay.resilience.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${kakaopay.resilience.slow-call-duration-threshold:2s}")
+    private Duration slowCallDurationThreshold;
+
+    @Value("${kakaopay.resilience.slow-call-rate-threshold:50}")
+    private float slowCallRateThreshold;
+
+    @Value("${kakaopay.resilience.sliding-window-size:50}")
+    private int slidingWindowSize;
+
+    @Value("${kakaopay.resilience.minimum-number-of-calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${kakaopay.resilience.wait-duration-in-open-state:15s}")
+    private Duration waitDurationInOpenState;
+
+    @Value("${kakaopay.resilience.approve-retry.max-attempts:3}")
+    private int approveRetryMaxAttempts;
+
+    @Value("${kakaopay.resilience.approve-retry.initial-backoff:200ms}")
+    private Duration approveRetryInitialBackoff;
+
+    @Bean
+    public Bulkhead kakaoPayBulkhead() {
+        return Bulkhead.of("kakaopay", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    @Bean
+    public CircuitBreaker kakaoPayCircuitBreaker() {
+        return CircuitBreaker.of("kakaopay", CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(KakaoPayResilienceConfig::isGatewayFailure)
+                .build());
+    }
+
+    @Bean
+    public Retry kakaoPayApproveRetry() {
+        return Retry.of("kakaopay-approve", RetryConfig.custom()
+                .maxAttempts(approveRetryMaxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(approveRetryInitialBackoff, 2.0, 0.5))
+                .retryOnException(KakaoPayResilienceConfig::isUnsent)
+                .build());
+    }
+
+    @Bean
+    public Retry kakaoPayOrderRetry() {
+        return Retry.of("kakaopay-order", RetryConfig.custom()
+                .maxAttempts(approveRetryMaxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(approveRetryInitialBackoff, 2.0, 0.5))
+                .retryOnException(KakaoPayResilienceConfig::isGatewayFailure)
+                .build());
+    }
+
+    public static boolean isGatewayFailure(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException;
+    }
+
+    /**
+     * Whether the request failed before any of it reached the gateway: the connection could not be opened or no
+     * pooled connection became free in time. Read and write timeouts are not, as the gateway may have acted on it.
+     */
+    public static boolean isUnsent(Throwable e) {
+        if (!(e instanceof WebClientRequestException)) {
+            return false;
+        }
+        Throwable cause = e.getCause();
+        return cause instanceof ConnectException
+                || cause instanceof UnknownHostException
+                || cause instanceof TimeoutException; // Pool acquire timeout; netty's read/write timeouts are not TimeoutExceptions
+    }
+}
@@ -3,9 +3,17 @@ package app.greenpoint.controller;
 import app.greenpoint.domain.Category;
 import app.greenpoint.domain.EsgRule;
 import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.RescoreJob;
 import app.greenpoint.dto.AdminCategoryDto;
 import app.greenpoint.dto.AdminEsgRuleDto;
 import app.greenpoint.dto.AdminMerchantDto;
+import app.greenpoint.dto.EsgSimulationRequestDto;
+import app.greenpoint.dto.EsgSimulationResultDto;
+import app.greenpoint.dto.KakaoPayResilienceStatsDto;
+import app.greenpoint.dto.ReportCacheStatsDto;
+import app.greenpoint.dto.RescoreJobRequestDto;
+import app.greenpoint.dto.TransactionBatchRequestDto;
+import app.greenpoint.dto.TransactionBatchResultDto;
 import app.greenpoint.service.AdminService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -100,18 +109,26 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllEsgRules());
     }
 
-    @Operation(summary = "새 ESG 규칙 생성")
+    @Operation(summary = "새 ESG 규칙 생성", description = "조건(JSON)과 점수 계산식을 검증한 뒤 저장하며, 커밋 후 즉시 점수 계산에 반영됩니다. 잘못된 조건이나 계산식은 400을 반환합니다.")
     @PostMapping("/esg-rule")
     public ResponseEntity<EsgRule> createEsgRule(@Valid @RequestBody AdminEsgRuleDto esgRuleDto) {
-        EsgRule createdEsgRule = adminService.createEsgRule(esgRuleDto);
-        return new ResponseEntity<>(createdEsgRule, HttpStatus.CREATED);
+        try {
+            EsgRule createdEsgRule = adminService.createEsgRule(esgRuleDto);
+            return new ResponseEntity<>(createdEsgRule, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
-    @Operation(summary = "기존 ESG 규칙 수정")
+    @Operation(summary = "기존 ESG 규칙 수정", description = "조건(JSON)과 점수 계산식을 검증한 뒤 저장하며, 커밋 후 즉시 점수 계산에 반영됩니다. 잘못된 조건이나 계산식은 400을 반환합니다.")
     @PutMapping("/esg-rule/{id}")
     public ResponseEntity<EsgRule> updateEsgRule(@PathVariable Long id, @Valid @RequestBody AdminEsgRuleDto esgRuleDto) {
-        EsgRule updatedEsgRule = adminService.updateEsgRule(id, esgRuleDto);
-        return ResponseEntity.ok(updatedEsgRule);
+        try {
+            EsgRule updatedEsgRule = adminService.updateEsgRule(id, esgRuleDto);
+            return ResponseEntity.ok(updatedEsgRule);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @Operation(summary = "ESG 규칙 삭제")
@@ -121,13 +138,86 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "ESG 점수 변경 시뮬레이션",
+               description = "카테고리 가중치나 ESG 규칙을 변경하기 전에, 지정한 기간의 확정 거래를 후보 설정으로 다시 계산해 현재 설정 대비 점수와 포인트 변화를 카테고리, ESG 등급, 지역별로 반환합니다. 실제 데이터는 변경되지 않으며, 잘못된 기간, 가중치 또는 규칙은 400을, 다른 시뮬레이션이 실행 중이면 409를 반환합니다.")
+    @PostMapping("/esg-rule/simulate")
+    public ResponseEntity<EsgSimulationResultDto> simulateEsgScoring(@Valid @RequestBody EsgSimulationRequestDto simulationDto) {
+        try {
+            return ResponseEntity.ok(adminService.simulateEsgScoring(simulationDto));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    // ========== 거래 일괄 등록 ==========
+
+    @Operation(summary = "파트너 거래 일괄 등록",
+               description = "NAVERPAY, CARD_X 등 파트너사가 전달한 거래를 한 번에 최대 5000건까지 등록하고 포인트를 적립합니다. 항목별 처리 결과를 요청 순서대로 반환하며, 사용자를 찾을 수 없는 항목은 저장하지 않고 REJECTED로 표시합니다.")
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<TransactionBatchResultDto> importTransactions(@Valid @RequestBody TransactionBatchRequestDto batchDto) {
+        return ResponseEntity.ok(adminService.importTransactions(batchDto));
+    }
+
+    // ========== 점수 재계산 ==========
+
+    @Operation(summary = "ESG 점수 재계산 작업 시작",
+               description = "카테고리 가중치나 ESG 규칙 변경 후, 이미 적립된 거래의 ESG 점수와 포인트를 현재 설정으로 다시 계산합니다. 작업은 백그라운드에서 청크 단위로 진행되며, 변경분은 ESG 로그에 조정 내역으로 기록되고 관련 리포트 캐시는 무효화됩니다. 이미 실행 중인 작업이 있으면 409를 반환합니다.")
+    @PostMapping("/rescore")
+    public ResponseEntity<RescoreJob> startRescoreJob(@Valid @RequestBody RescoreJobRequestDto rescoreDto) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminService.startRescoreJob(rescoreDto));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @Operation(summary = "최근 ESG 점수 재계산 작업 목록")
+    @GetMapping("/rescore")
+    public ResponseEntity<List<RescoreJob>> getRecentRescoreJobs() {
+        return ResponseEntity.ok(adminService.getRecentRescoreJobs());
+    }
+
+    @Operation(summary = "ESG 점수 재계산 작업 진행 상황", description = "처리한 거래 수, 점수가 변경된 거래 수, 포인트 변화량과 마지막 처리 거래 ID를 조회합니다.")
+    @GetMapping("/rescore/{id}")
+    public ResponseEntity<RescoreJob> getRescoreJob(@PathVariable Long id) {
+        return ResponseEntity.ok(adminService.getRescoreJob(id));
+    }
+
+    @Operation(summary = "ESG 점수 재계산 작업 재개", description = "실패했거나 중단된 작업을 마지막으로 처리한 거래 다음부터 이어서 실행합니다.")
+    @PostMapping("/rescore/{id}/resume")
+    public ResponseEntity<RescoreJob> resumeRescoreJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminService.resumeRescoreJob(id));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @Operation(summary = "ESG 점수 재계산 작업 중단", description = "현재 청크를 마친 뒤 작업을 멈춥니다. 이후 재개할 수 있습니다.")
+    @PostMapping("/rescore/{id}/cancel")
+    public ResponseEntity<RescoreJob> cancelRescoreJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(adminService.cancelRescoreJob(id));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
     // ========== 배치 작업 트리거 ==========
 
-    @Operation(summary = "랭킹 데이터 재계산", description = "특정 기간의 랭킹 데이터를 수동으로 재계산하는 배치 작업을 실행합니다.")
+    @Operation(summary = "랭킹 데이터 재계산", description = "특정 월의 전체 및 지역별 랭킹 스냅샷을 다시 계산해 저장합니다. 지난 달 랭킹 조회는 이 스냅샷을 사용합니다. 잘못된 기간이나 미래의 달은 400을 반환합니다.")
     @PostMapping("/ranking/rebuild")
     public ResponseEntity<String> rebuildRanking(@Parameter(description = "재계산할 기간 (예: 2025-10)") @RequestParam String period) {
-        adminService.rebuildRanking(period);
-        return ResponseEntity.ok("랭킹 재계산 작업이 요청되었습니다: " + period);
+        try {
+            int snapshots = adminService.rebuildRanking(period);
+            return ResponseEntity.ok("랭킹 스냅샷을 재생성했습니다: " + period + " (" + snapshots + "개)");
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @Operation(summary = "리포트 데이터 재계산", description = "특정 기간의 리포트 데이터를 수동으로 재계산하는 배치 작업을 실행합니다.")
@@ -136,4 +226,18 @@ public class AdminController {
         adminService.rebuildReport(period);
         return ResponseEntity.ok("리포트 재계산 작업이 요청되었습니다: " + period);
     }
+
+    // ========== 캐시 모니터링 ==========
+
+    @Operation(summary = "리포트 L1 캐시 통계", description = "인메모리 리포트 캐시의 적중/미스 횟수, 적중률, 제거 횟수 및 현재 크기를 조회합니다.")
+    @GetMapping("/cache/report")
+    public ResponseEntity<ReportCacheStatsDto> getReportCacheStats() {
+        return ResponseEntity.ok(adminService.getReportCacheStats());
+    }
+
+    @Operation(summary = "카카오페이 장애 격리 상태", description = "카카오페이 호출에 적용된 서킷 브레이커 상태, 실패/지연 호출 비율, 벌크헤드 여유 슬롯 및 승인 재시도 통계를 조회합니다.")
+    @GetMapping("/kakaopay/resilience")
+    public ResponseEntity<KakaoPayResilienceStatsDto> getKakaoPayResilienceStats() {
+        return ResponseEntity.ok(adminService.getKakaoPayResilienceStats());
+    }
 }
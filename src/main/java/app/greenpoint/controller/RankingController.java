@@ -4,14 +4,21 @@ import app.greenpoint.dto.MyRankDto;
 import app.greenpoint.dto.RankingResponseDto;
 import app.greenpoint.service.RankingService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 
 @Tag(name = "랭킹", description = "사용자 랭킹 조회 API")
 @RestController
@@ -19,17 +26,43 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class RankingController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final RankingService rankingService;
 
     @Operation(summary = "전체 사용자 랭킹 조회",
-               description = "전체 사용자의 포인트 기준 랭킹을 조회합니다.",
+               description = "전체 사용자의 포인트 기준 랭킹을 페이지 단위로 조회합니다.",
                security = @SecurityRequirement(name = "bearerAuth"))
     @GetMapping
-    public ResponseEntity<RankingResponseDto> getRanking() {
-        RankingResponseDto rankingResponse = rankingService.getRanking();
+    public ResponseEntity<RankingResponseDto> getRanking(
+            @Parameter(description = "페이지 번호 (0부터 시작)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "페이지 당 항목 수 (최대 500)") @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 페이지 요청입니다.");
+        }
+        RankingResponseDto rankingResponse = rankingService.getRanking(page, size);
         return ResponseEntity.ok(rankingResponse);
     }
 
+    @Operation(summary = "월간 랭킹 조회",
+               description = "지정한 달에 적립한 포인트 기준 랭킹을 전체(ALL) 또는 지역별로 조회합니다. 지난 달은 저장된 랭킹 스냅샷에서 상위 사용자만 제공되며, 이번 달은 실시간으로 집계됩니다.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping("/monthly")
+    public ResponseEntity<RankingResponseDto> getMonthlyRanking(
+            @Parameter(description = "조회할 기간 (예: 2025-10)") @RequestParam String period,
+            @Parameter(description = "지역 (ALL이면 전체)") @RequestParam(defaultValue = RankingService.ALL_REGIONS) String region,
+            @Parameter(description = "페이지 번호 (0부터 시작)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "페이지 당 항목 수 (최대 500)") @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 페이지 요청입니다.");
+        }
+        try {
+            return ResponseEntity.ok(rankingService.getMonthlyRanking(YearMonth.parse(period), region, page, size));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 기간입니다: " + period, e);
+        }
+    }
+
     @Operation(summary = "내 랭킹 조회",
             description = "현재 로그인된 사용자의 랭킹 정보를 조회합니다.",
             security = @SecurityRequirement(name = "bearerAuth"))
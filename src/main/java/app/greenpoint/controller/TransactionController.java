@@ -1,21 +1,30 @@
 package app.greenpoint.controller;
 
+import app.greenpoint.dto.CursorPageDto;
 import app.greenpoint.dto.TransactionRequestDto;
 import app.greenpoint.dto.TransactionResponseDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyResponseDto;
+import app.greenpoint.service.CustomUserDetails;
 import app.greenpoint.service.TransactionService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.view.RedirectView;
 
 import app.greenpoint.dto.TransactionHistoryDto;
-import java.util.List;
 
 @Tag(name = "거래", description = "거래 및 리워드 적립 API")
 @RestController
@@ -23,20 +32,45 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TransactionService transactionService;
 
     @Operation(summary = "사용자 거래 내역 조회",
-               description = "인증된 사용자의 모든 거래 내역을 최신순으로 조회합니다. 인증이 필요합니다.",
+               description = "인증된 사용자의 거래 내역을 최신순으로 조회합니다. 응답의 nextCursor를 cursor로 전달하면 다음 페이지를 조회합니다. 인증이 필요합니다.",
                security = @SecurityRequirement(name = "bearerAuth"))
     @GetMapping
-    public ResponseEntity<List<TransactionHistoryDto>> getTransactionHistory(Authentication authentication) {
+    public ResponseEntity<CursorPageDto<TransactionHistoryDto>> getTransactionHistory(
+            @Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 당 항목 수 (최대 100)") @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 페이지 크기입니다.");
+        }
         String userEmail = authentication.getName();
-        List<TransactionHistoryDto> transactionHistory = transactionService.getTransactionsByUserEmail(userEmail);
-        return ResponseEntity.ok(transactionHistory);
+        try {
+            CursorPageDto<TransactionHistoryDto> transactionHistory = transactionService.getTransactionsByUserEmail(userEmail, cursor, size);
+            return ResponseEntity.ok(transactionHistory);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", e);
+        }
+    }
+
+    @Operation(summary = "거래 내역 전체 내보내기",
+               description = "인증된 사용자의 전체 거래 내역을 NDJSON(한 줄에 하나의 JSON)으로 스트리밍합니다. 인증이 필요합니다.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(Authentication authentication) {
+        Long userId = ((CustomUserDetails) authentication.getPrincipal()).getAppUser().getId();
+        StreamingResponseBody body = out -> transactionService.exportTransactionHistory(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.ndjson\"")
+                .body(body);
     }
 
     @Operation(summary = "거래 내역 제출",
-               description = "사용자의 거래 내역을 제출하여 ESG 점수를 계산하고 포인트를 적립합니다. 인증이 필요합니다.",
+               description = "사용자의 거래 내역을 제출하여 ESG 점수를 계산하고 포인트를 적립합니다. 비동기 적립 모드(reward.pipeline.async)에서는 거래만 기록하고 202를 반환하며, 점수와 포인트는 백그라운드에서 적립됩니다. 인증이 필요합니다.",
                security = @SecurityRequirement(name = "bearerAuth"))
     @PostMapping
     public ResponseEntity<TransactionResponseDto> submitTransaction(
@@ -47,6 +81,9 @@ public class TransactionController {
         String userEmail = authentication.getName();
 
         TransactionResponseDto response = transactionService.processTransaction(userEmail, transactionRequestDto);
+        if (transactionService.isRewardPipelineAsync()) {
+            return ResponseEntity.accepted().body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -58,8 +95,12 @@ public class TransactionController {
             @Valid @RequestBody TransactionRequestDto transactionRequestDto,
             Authentication authentication) {
         String userEmail = authentication.getName();
-        KakaoPayReadyResponseDto response = transactionService.initiateKakaoPayPayment(userEmail, transactionRequestDto);
-        return ResponseEntity.ok(response);
+        try {
+            KakaoPayReadyResponseDto response = transactionService.initiateKakaoPayPayment(userEmail, transactionRequestDto);
+            return ResponseEntity.ok(response);
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "카카오페이 결제가 일시적으로 지연되고 있습니다. 잠시 후 다시 시도해주세요.", e);
+        }
     }
 
     @Operation(summary = "카카오페이 결제 성공 콜백",
@@ -67,7 +108,11 @@ public class TransactionController {
     @GetMapping("/kakao/success/{orderId}")
     public RedirectView kakaoPaySuccess(@RequestParam("pg_token") String pgToken,
                                         @PathVariable("orderId") Long orderId) {
-        transactionService.approveKakaoPayPayment(pgToken, orderId);
+        try {
+            transactionService.approveKakaoPayPayment(pgToken, orderId);
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "카카오페이 결제가 일시적으로 지연되고 있습니다. 잠시 후 다시 시도해주세요.", e);
+        }
         // Redirect to a frontend success page, passing the order ID
         // TODO: The base URL should be configurable
         return new RedirectView("http://localhost:5173/payment/success/" + orderId);
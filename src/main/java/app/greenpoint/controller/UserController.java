@@ -1,24 +1,28 @@
 package app.greenpoint.controller;
 
+import app.greenpoint.dto.CursorPageDto;
 import app.greenpoint.dto.ReportResponseDto;
 import app.greenpoint.dto.TransactionResponseDto;
 import app.greenpoint.dto.UserProfileDto;
 import app.greenpoint.service.CustomUserDetails;
 import app.greenpoint.service.ReportService;
+import app.greenpoint.service.TransactionService;
 import app.greenpoint.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Tag(name = "사용자", description = "사용자 프로필 및 리포트 API")
 @RestController
@@ -26,8 +30,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserService userService;
     private final ReportService reportService;
+    private final TransactionService transactionService;
 
     @Operation(summary = "내 프로필 조회",
                description = "현재 로그인된 사용자의 프로필 정보(포인트, 레벨, 배지 포함)를 조회합니다.",
@@ -84,11 +91,41 @@ public class UserController {
     }
 
     @Operation(summary = "사용자 거래 내역 조회",
-               description = "특정 사용자의 모든 거래 내역을 조회합니다. 사용자는 자신의 거래 내역만 조회할 수 있으며, 관리자는 모든 사용자의 거래 내역을 조회할 수 있습니다. 인증이 필요합니다.",
+               description = "특정 사용자의 거래 내역을 최신순으로 페이지 단위 조회합니다. 응답의 nextCursor를 cursor로 전달하면 다음 페이지를 조회합니다. 사용자는 자신의 거래 내역만 조회할 수 있으며, 관리자는 모든 사용자의 거래 내역을 조회할 수 있습니다. 인증이 필요합니다.",
                security = @SecurityRequirement(name = "bearerAuth"))
     @GetMapping("/{userId}/transactions")
-    public ResponseEntity<List<TransactionResponseDto>> getUserTransactions(
+    public ResponseEntity<CursorPageDto<TransactionResponseDto>> getUserTransactions(
             @Parameter(description = "거래 내역을 조회할 사용자의 ID") @PathVariable Long userId,
+            @Parameter(description = "이전 응답의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 당 항목 수 (최대 100)") @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 페이지 크기입니다.");
+        }
+
+        // 인가 확인
+        CustomUserDetails currentUser = (CustomUserDetails) authentication.getPrincipal();
+        boolean isAdmin = currentUser.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+
+        if (!isAdmin && !currentUser.getAppUser().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "이 거래 내역에 접근할 권한이 없습니다.");
+        }
+
+        try {
+            CursorPageDto<TransactionResponseDto> transactions = userService.getUserTransactionHistory(userId, cursor, size);
+            return ResponseEntity.ok(transactions);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", e);
+        }
+    }
+
+    @Operation(summary = "사용자 거래 내역 전체 내보내기",
+               description = "특정 사용자의 전체 거래 내역을 거래 내역 조회와 같은 형식의 NDJSON(한 줄에 하나의 JSON)으로 스트리밍합니다. 사용자는 자신의 거래 내역만 내보낼 수 있으며, 관리자는 모든 사용자의 거래 내역을 내보낼 수 있습니다. 인증이 필요합니다.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @GetMapping(value = "/{userId}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserTransactions(
+            @Parameter(description = "거래 내역을 내보낼 사용자의 ID") @PathVariable Long userId,
             Authentication authentication) {
 
         // 인가 확인
@@ -100,7 +137,10 @@ public class UserController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "이 거래 내역에 접근할 권한이 없습니다.");
         }
 
-        List<TransactionResponseDto> transactions = userService.getUserTransactionHistory(userId);
-        return ResponseEntity.ok(transactions);
+        StreamingResponseBody body = out -> transactionService.exportUserTransactions(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + userId + ".ndjson\"")
+                .body(body);
     }
 }
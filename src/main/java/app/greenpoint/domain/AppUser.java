@@ -3,10 +3,14 @@ package app.greenpoint.domain;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
+// Points and level are only changed by AppUserRepository.incrementPoints; writing just the dirty
+// columns keeps profile updates from overwriting a balance changed concurrently
 @Entity
+@DynamicUpdate
 @Table(name = "app_user")
 @Getter
 @Setter
@@ -57,11 +61,9 @@ public class AppUser {
     }
 
     /**
-     * Adds points to the user and updates their level accordingly.
-     * @param pointsToAdd The number of points to add.
+     * Returns the level for the given point balance (one level per 1000 points).
      */
-    public void addPoints(int pointsToAdd) {
-        this.points += pointsToAdd;
-        this.level = (int) Math.floor((double) this.points / 1000) + 1;
+    public static int levelFor(int points) {
+        return (int) Math.floor((double) points / 1000) + 1;
     }
 }
@@ -0,0 +1,23 @@
+package app.greenpoint.domain;
+
+/**
+ * Names shared by the {@code @TableGenerator} mappings and {@link app.greenpoint.repository.IdBlockAllocator}.
+ * Each high-volume entity draws ids from its own row of {@code id_generator}, reserving
+ * {@link #ALLOCATION_SIZE} ids per round trip. The stored value is the last id reserved (Hibernate's default
+ * {@code hibernate.id.generator.stored_last_used}), so a block read as {@code v} covers {@code v + 1 .. v + size}.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String SEGMENT_COLUMN = "segment_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 100;
+
+    public static final String TRANSACTION = "transaction";
+    public static final String REWARD_POINT = "reward_point";
+    public static final String ESG_LOG = "esg_log";
+    public static final String REPORT_CACHE = "report_cache";
+
+    private IdGenerators() {
+    }
+}
@@ -17,7 +17,10 @@ import java.time.LocalDateTime;
 public class ReportCache {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "report_cache_id")
+    @TableGenerator(name = "report_cache_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.REPORT_CACHE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,7 +32,11 @@ public class ReportCache {
 
     @Lob
     @Column(name = "payload_json", columnDefinition = "TEXT")
-    private String payloadJson;
+    private String payloadJson; // Legacy rows only; new rows are written to payloadBin
+
+    @Lob
+    @Column(name = "payload_bin", columnDefinition = "BLOB")
+    private byte[] payloadBin; // Versioned binary encoding, see ReportPayloadCodec
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
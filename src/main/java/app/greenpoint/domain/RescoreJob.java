@@ -0,0 +1,89 @@
+package app.greenpoint.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A bulk rescoring of awarded transactions against the current category weights and ESG rules.
+ * Transactions are processed in id order up to {@code maxTxId}; {@code lastTxId} is the checkpoint a
+ * resumed job continues from. At most one job is running at a time, across all instances: {@code running_lock}
+ * is {@code true} only while the job runs and is unique, so a second running row fails to flush.
+ */
+@Entity
+@Table(name = "rescore_job",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rescore_job_running", columnNames = "running_lock"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RescoreJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    @Column(name = "category_code", length = 50)
+    private String categoryCode; // Only this category's transactions; all when null
+
+    @Column(name = "from_date")
+    private LocalDate fromDate;
+
+    @Column(name = "to_date")
+    private LocalDate toDate;
+
+    @Column(length = 200)
+    private String reason;
+
+    @Column(name = "last_tx_id", nullable = false)
+    private long lastTxId;
+
+    @Column(name = "max_tx_id", nullable = false)
+    private long maxTxId;
+
+    @Column(nullable = false)
+    private long scanned;
+
+    @Column(nullable = false)
+    private long adjusted;
+
+    @Column(name = "points_delta", nullable = false)
+    private long pointsDelta;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "running_lock")
+    private Boolean runningLock; // TRUE while running, NULL otherwise (the unique index ignores NULLs)
+
+    @PrePersist
+    @PreUpdate
+    void syncRunningLock() {
+        runningLock = status == Status.RUNNING ? Boolean.TRUE : null;
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
@@ -17,7 +17,10 @@ import java.time.LocalDateTime;
 public class RewardPoint {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reward_point_id")
+    @TableGenerator(name = "reward_point_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.REWARD_POINT,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "point_id")
     private Long id;
 
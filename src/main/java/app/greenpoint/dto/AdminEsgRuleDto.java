@@ -12,9 +12,11 @@ public class AdminEsgRuleDto {
     @NotBlank
     private String name;
 
-    @Schema(description = "규칙 조건 (JSON 형식)", example = "{\"type\": \"VISIT_COUNT\", \"merchant_id\": 123, \"count\": 5}")
+    @Schema(description = "규칙 조건 (JSON 형식, 비워두면 모든 거래에 적용). all/any/not 조합과 field/op/value 조건을 지원합니다.",
+            example = "{\"all\": [{\"field\": \"tier\", \"op\": \"in\", \"value\": [\"A\", \"B\"]}, {\"field\": \"amount\", \"op\": \"gte\", \"value\": 10000}]}")
     private String conditionJson;
 
-    @Schema(description = "점수 계산식", example = "baseScore * 1.1 + 5")
+    @Schema(description = "점수 계산식. score(현재 점수), baseScore, weight, regionalBonus, tierBonus, amount, hour 변수와 floor, ceil, round, abs, log10, min, max 함수를 사용할 수 있습니다.",
+            example = "score * 1.1 + 5")
     private String scoreFormula;
 }
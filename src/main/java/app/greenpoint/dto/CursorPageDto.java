@@ -0,0 +1,28 @@
+package app.greenpoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Builds a page from a query that fetched one row more than {@code size}; the extra row only signals that more data exists.
+     */
+    public static <T> CursorPageDto<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPageDto<>(items, cursorOf.apply(items.get(size - 1)), true);
+    }
+}
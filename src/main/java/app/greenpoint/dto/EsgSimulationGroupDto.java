@@ -0,0 +1,30 @@
+package app.greenpoint.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class EsgSimulationGroupDto {
+    @Schema(description = "카테고리 코드, ESG 등급 또는 지역 (전체 합계는 ALL)")
+    private String key;
+    private long transactions;
+    private long increased;
+    private long decreased;
+    private long currentPoints;
+    private long candidatePoints;
+    private long pointsDelta;
+    private double meanScoreDelta;
+    private int minScoreDelta;
+    private int p10ScoreDelta;
+    private int medianScoreDelta;
+    private int p90ScoreDelta;
+    private int maxScoreDelta;
+    @Schema(description = "ESG 점수 변화량별 거래 수 (±100을 넘는 변화는 양 끝 구간에 합산)")
+    private Map<Integer, Long> scoreDeltaHistogram;
+}
@@ -0,0 +1,31 @@
+package app.greenpoint.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class EsgSimulationRequestDto {
+
+    @Schema(description = "재계산할 거래 시작일 (포함)", example = "2025-10-01")
+    @NotNull
+    private LocalDate from;
+
+    @Schema(description = "재계산할 거래 종료일 (포함)", example = "2025-10-31")
+    @NotNull
+    private LocalDate to;
+
+    @Schema(description = "변경할 카테고리별 ESG 가중치. 지정하지 않은 카테고리는 현재 가중치를 사용합니다.",
+            example = "{\"CAFE\": 1.5, \"FUEL\": 0.5}")
+    private Map<String, Double> categoryWeights;
+
+    @Schema(description = "적용할 ESG 규칙 전체 목록 (순서대로 적용). 생략하면 현재 규칙을 그대로 사용하고, 빈 목록이면 규칙 없이 기본 점수만 계산합니다.")
+    private List<@Valid AdminEsgRuleDto> rules;
+}
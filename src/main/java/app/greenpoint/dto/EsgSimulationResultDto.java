@@ -0,0 +1,21 @@
+package app.greenpoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class EsgSimulationResultDto {
+    private LocalDate from;
+    private LocalDate to;
+    private long elapsedMs;
+    private EsgSimulationGroupDto total;
+    private List<EsgSimulationGroupDto> byCategory;
+    private List<EsgSimulationGroupDto> byTier;
+    private List<EsgSimulationGroupDto> byRegion;
+}
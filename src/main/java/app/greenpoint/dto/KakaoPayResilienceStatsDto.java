@@ -0,0 +1,22 @@
+package app.greenpoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class KakaoPayResilienceStatsDto {
+    private String circuitState;
+    private float failureRate;
+    private float slowCallRate;
+    private int bufferedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private long notPermittedCalls;
+    private int availableConcurrentCalls;
+    private int maxConcurrentCalls;
+    private long approveSucceededAfterRetry;
+    private long approveFailedAfterRetry;
+}
@@ -12,4 +12,6 @@ public class MyRankDto {
     private String nickname;
     private int level;
     private int points;
+    private long totalUsers;
+    private double percentile;
 }
@@ -0,0 +1,17 @@
+package app.greenpoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ReportCacheStatsDto {
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long estimatedSize;
+    private long weightedSize;
+}
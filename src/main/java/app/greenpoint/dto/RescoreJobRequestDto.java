@@ -0,0 +1,26 @@
+package app.greenpoint.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class RescoreJobRequestDto {
+
+    @Schema(description = "재계산할 카테고리 코드 (비워두면 모든 카테고리)", example = "CAFE")
+    private String categoryCode;
+
+    @Schema(description = "재계산할 거래 시작일 (포함, 비워두면 처음부터)", example = "2025-10-01")
+    private LocalDate from;
+
+    @Schema(description = "재계산할 거래 종료일 (포함, 비워두면 현재까지)", example = "2025-10-31")
+    private LocalDate to;
+
+    @Schema(description = "재계산 사유", example = "CAFE 가중치 1.2 -> 1.5 변경")
+    @Size(max = 200)
+    private String reason;
+}
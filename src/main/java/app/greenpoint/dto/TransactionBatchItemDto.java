@@ -0,0 +1,15 @@
+package app.greenpoint.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TransactionBatchItemDto extends TransactionRequestDto {
+
+    @Schema(description = "거래 사용자 이메일", example = "user@example.com")
+    @NotBlank
+    private String userEmail;
+}
@@ -0,0 +1,18 @@
+package app.greenpoint.dto;
+
+import app.greenpoint.domain.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TransactionBatchItemResultDto {
+    private int index;
+    private Long txId;
+    private Transaction.Status status;
+    private int esgScore;
+    private int pointsEarned;
+    private String error;
+}
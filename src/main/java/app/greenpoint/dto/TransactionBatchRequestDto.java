@@ -0,0 +1,20 @@
+package app.greenpoint.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TransactionBatchRequestDto {
+
+    @Schema(description = "일괄 등록할 거래 목록 (최대 5000건)")
+    @NotEmpty
+    @Size(max = 5000)
+    private List<@Valid TransactionBatchItemDto> transactions;
+}
@@ -0,0 +1,17 @@
+package app.greenpoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TransactionBatchResultDto {
+    private int received;
+    private int confirmed;
+    private int rejected;
+    private List<TransactionBatchItemResultDto> results;
+}
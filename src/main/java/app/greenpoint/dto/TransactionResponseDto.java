@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -15,4 +18,15 @@ public class TransactionResponseDto {
     private int pointsEarned;
     private int userPoints;
     private Merchant.EsgTier tier;
+    private LocalDateTime txTime;
+
+    /**
+     * Flat constructor used by JPQL projections; builds the matched merchant when one is present.
+     */
+    public TransactionResponseDto(Long txId, Long merchantId, String merchantName, BigDecimal merchantLat, BigDecimal merchantLng,
+                                  int esgScore, int pointsEarned, int userPoints, Merchant.EsgTier tier, LocalDateTime txTime) {
+        this(txId,
+                (merchantId != null) ? new MatchedMerchantDto(merchantId, merchantName, merchantLat, merchantLng) : null,
+                esgScore, pointsEarned, userPoints, tier, txTime);
+    }
 }
@@ -0,0 +1,10 @@
+package app.greenpoint.dto.kakaopay;
+
+import lombok.Data;
+
+@Data
+public class KakaoPayOrderRequestDto {
+    private String cid;
+    private String cid_secret;
+    private String tid;
+}
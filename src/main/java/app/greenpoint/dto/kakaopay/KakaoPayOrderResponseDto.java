@@ -0,0 +1,34 @@
+package app.greenpoint.dto.kakaopay;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class KakaoPayOrderResponseDto {
+    private String tid;
+    private String cid;
+    private String status;
+    private String partner_order_id;
+    private String partner_user_id;
+    private String payment_method_type;
+    private String item_name;
+    private Integer quantity;
+    private LocalDateTime created_at;
+    private LocalDateTime approved_at;
+    private LocalDateTime canceled_at;
+    private List<PaymentActionDetail> payment_action_details;
+
+    @Data
+    public static class PaymentActionDetail {
+        private String aid;
+        private LocalDateTime approved_at;
+        private Integer amount;
+        private Integer point_amount;
+        private Integer discount_amount;
+        private Integer green_deposit;
+        private String payment_action_type;
+        private String payload;
+    }
+}
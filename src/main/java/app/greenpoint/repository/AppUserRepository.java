@@ -1,15 +1,21 @@
 package app.greenpoint.repository;
 
 import app.greenpoint.domain.AppUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByEmail(String email);
 
+    List<AppUser> findByEmailIn(Collection<String> emails);
+
     List<AppUser> findTop10ByRegionOrderByPointsDesc(String region);
 
     List<AppUser> findTop10ByOrderByPointsDesc();
@@ -20,4 +26,29 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
 
     @Query("SELECT DISTINCT a.region FROM AppUser a")
     List<String> findDistinctRegions();
+
+    List<PointsView> findAllProjectedBy();
+
+    @Query("SELECT a.id FROM AppUser a WHERE a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Adds {@code delta} to the user's points in a single statement, so concurrent accruals never lose
+     * updates and the row is locked only until the surrounding transaction commits. The level is assigned
+     * first and computed from {@code points + delta}, which is correct whether the database evaluates SET
+     * clauses against the old row (standard SQL) or left to right (MySQL). Mirrors {@link AppUser#levelFor}.
+     */
+    @Modifying
+    @Query("UPDATE AppUser a SET a.level = CAST(FLOOR((a.points + :delta) / 1000.0) AS Integer) + 1, a.points = a.points + :delta, " +
+           "a.updatedAt = CURRENT_TIMESTAMP WHERE a.id = :id")
+    int incrementPoints(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("SELECT a.points FROM AppUser a WHERE a.id = :id")
+    int findPointsById(@Param("id") Long id);
+
+    interface PointsView {
+        Long getId();
+        String getNickname();
+        int getPoints();
+    }
 }
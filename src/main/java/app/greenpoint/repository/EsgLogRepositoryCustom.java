@@ -0,0 +1,14 @@
+package app.greenpoint.repository;
+
+import java.util.List;
+
+/**
+ * JDBC-level bulk inserts of ESG log entries, used by bulk rescoring to record score adjustments.
+ */
+public interface EsgLogRepositoryCustom {
+
+    void insertAll(List<NewEsgLog> rows);
+
+    record NewEsgLog(long userId, long txId, long merchantId, String detailsJson) {
+    }
+}
@@ -0,0 +1,40 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class EsgLogRepositoryImpl implements EsgLogRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO esg_log (id, user_id, tx_id, merchant_id, details_json, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    @Override
+    public void insertAll(List<NewEsgLog> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        long firstId = idBlockAllocator.allocate(IdGenerators.ESG_LOG, rows.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, indexes, BATCH_SIZE, (ps, i) -> {
+            NewEsgLog row = rows.get(i);
+            ps.setLong(1, firstId + i);
+            ps.setLong(2, row.userId());
+            ps.setLong(3, row.txId());
+            ps.setLong(4, row.merchantId());
+            ps.setString(5, row.detailsJson());
+            ps.setTimestamp(6, now);
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.IdGenerators;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out id blocks from {@code id_generator} for rows inserted over JDBC, using the same pooled-lo
+ * scheme as the entities' {@code @TableGenerator} mappings so both paths can share a table without
+ * colliding. Reservations run in their own short transaction (like Hibernate's generator) so the
+ * generator row is never locked for the length of the caller's transaction. Small requests are served
+ * from an in-memory block of {@link IdGenerators#ALLOCATION_SIZE} ids.
+ */
+@Component
+public class IdBlockAllocator {
+
+    private static final String SELECT_SQL = "SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE +
+            " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ? FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN +
+            " = ? WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?";
+    private static final String INSERT_SQL = "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.SEGMENT_COLUMN +
+            ", " + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids for {@code segment} and returns the first one.
+     */
+    public synchronized long allocate(String segment, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        Block block = blocks.get(segment);
+        if (block != null && block.remaining() >= count) {
+            return block.take(count);
+        }
+        if (count >= IdGenerators.ALLOCATION_SIZE) {
+            return reserve(segment, count); // large batches get an exact block and keep the pooled one
+        }
+        long first = reserve(segment, IdGenerators.ALLOCATION_SIZE);
+        block = new Block(first, first + IdGenerators.ALLOCATION_SIZE);
+        blocks.put(segment, block);
+        return block.take(count);
+    }
+
+    private long reserve(String segment, int count) {
+        Long first = requiresNew.execute(status -> {
+            List<Long> current = jdbcTemplate.queryForList(SELECT_SQL, Long.class, segment);
+            if (current.isEmpty()) {
+                // Fresh database: start the segment at 1 like Hibernate does
+                jdbcTemplate.update(INSERT_SQL, segment, (long) count);
+                return 1L;
+            }
+            long lastUsed = current.get(0);
+            jdbcTemplate.update(UPDATE_SQL, lastUsed + count, segment);
+            return lastUsed + 1;
+        });
+        return first;
+    }
+
+    private static final class Block {
+        private long next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        private long remaining() {
+            return end - next;
+        }
+
+        private long take(int count) {
+            long first = next;
+            next += count;
+            return first;
+        }
+    }
+}
@@ -2,9 +2,24 @@ package app.greenpoint.repository;
 
 import app.greenpoint.domain.RankingSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 
 public interface RankingSnapshotRepository extends JpaRepository<RankingSnapshot, Long> {
     Optional<RankingSnapshot> findByRegionAndPeriodYm(String region, String periodYm);
+
+    /**
+     * The newest snapshot wins should two concurrent rebuilds of the same period both have committed.
+     */
+    Optional<RankingSnapshot> findFirstByRegionAndPeriodYmOrderByIdDesc(String region, String periodYm);
+
+    boolean existsByPeriodYm(String periodYm);
+
+    @Modifying
+    @Query("DELETE FROM RankingSnapshot s WHERE s.periodYm IN :periods")
+    int deleteByPeriodYmIn(@Param("periods") Collection<String> periods);
 }
@@ -6,6 +6,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface ReportCacheRepository extends JpaRepository<ReportCache, Long> {
+public interface ReportCacheRepository extends JpaRepository<ReportCache, Long>, ReportCacheRepositoryCustom {
     Optional<ReportCache> findByUserAndPeriod(AppUser user, String period);
 }
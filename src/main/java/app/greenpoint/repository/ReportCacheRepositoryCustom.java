@@ -0,0 +1,24 @@
+package app.greenpoint.repository;
+
+import java.util.List;
+
+/**
+ * JDBC-level bulk operations on report_cache that bypass entity hydration.
+ * Writes are upserts keyed by the (user_id, period) unique constraint, so re-caching overwrites the payload.
+ * Payloads are stored in the binary column; any legacy JSON on the row is cleared.
+ * Evictions delete rows by (user_id, period) so the next read rebuilds them.
+ */
+public interface ReportCacheRepositoryCustom {
+
+    void upsert(CachedPayload payload);
+
+    void upsertAll(List<CachedPayload> payloads);
+
+    void evictAll(List<CacheKey> keys);
+
+    record CacheKey(long userId, String period) {
+    }
+
+    record CachedPayload(long userId, String period, byte[] payload) {
+    }
+}
@@ -0,0 +1,67 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class ReportCacheRepositoryImpl implements ReportCacheRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String UPSERT_SQL =
+            "INSERT INTO report_cache (id, user_id, period, payload_bin, created_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE payload_bin = VALUES(payload_bin), payload_json = NULL";
+
+    private static final String DELETE_SQL = "DELETE FROM report_cache WHERE user_id = ? AND period = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    @Override
+    @Transactional
+    public void upsert(CachedPayload payload) {
+        jdbcTemplate.update(UPSERT_SQL, idBlockAllocator.allocate(IdGenerators.REPORT_CACHE, 1),
+                payload.userId(), payload.period(), payload.payload(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Upserts in JDBC batches; with rewriteBatchedStatements=true the MySQL driver sends each batch as one multi-row statement.
+     */
+    @Override
+    @Transactional
+    public void upsertAll(List<CachedPayload> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        // Rows that hit an existing (user_id, period) keep their id; their reserved id is simply skipped
+        long firstId = idBlockAllocator.allocate(IdGenerators.REPORT_CACHE, payloads.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> indexes = IntStream.range(0, payloads.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, indexes, BATCH_SIZE, (ps, i) -> {
+            CachedPayload payload = payloads.get(i);
+            ps.setLong(1, firstId + i);
+            ps.setLong(2, payload.userId());
+            ps.setString(3, payload.period());
+            ps.setBytes(4, payload.payload());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void evictAll(List<CacheKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, keys, BATCH_SIZE, (ps, key) -> {
+            ps.setLong(1, key.userId());
+            ps.setString(2, key.period());
+        });
+    }
+}
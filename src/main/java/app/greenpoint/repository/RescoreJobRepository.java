@@ -0,0 +1,24 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.RescoreJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RescoreJobRepository extends JpaRepository<RescoreJob, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM RescoreJob j WHERE j.id = :id")
+    Optional<RescoreJob> lockById(@Param("id") Long id);
+
+    boolean existsByStatus(RescoreJob.Status status);
+
+    List<RescoreJob> findByStatus(RescoreJob.Status status);
+
+    List<RescoreJob> findTop20ByOrderByIdDesc();
+}
@@ -0,0 +1,32 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.RewardOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface RewardOutboxRepository extends JpaRepository<RewardOutbox, Long> {
+
+    /**
+     * Locks up to a page of due entries, skipping rows already locked by another worker
+     * (lock timeout -2 renders as {@code FOR UPDATE SKIP LOCKED}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM RewardOutbox o WHERE o.availableAt <= :now ORDER BY o.id")
+    List<RewardOutbox> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM RewardOutbox o WHERE o.id = :id")
+    Optional<RewardOutbox> claimById(@Param("id") Long id);
+}
@@ -3,7 +3,10 @@ package app.greenpoint.repository;
 import app.greenpoint.domain.AppUser;
 import app.greenpoint.domain.RewardPoint;
 import app.greenpoint.domain.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,12 +16,36 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RewardPointRepository extends JpaRepository<RewardPoint, Long> {
+public interface RewardPointRepository extends JpaRepository<RewardPoint, Long>, RewardPointRepositoryCustom {
     List<RewardPoint> findTop5ByUserOrderByCreatedAtDesc(AppUser user);
     @Query("SELECT rp FROM RewardPoint rp JOIN FETCH rp.transaction t LEFT JOIN FETCH t.merchant WHERE rp.user = :user AND rp.createdAt BETWEEN :start AND :end")
     Page<RewardPoint> findByUserAndCreatedAtBetween(@Param("user") AppUser user, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, Pageable pageable);
     List<RewardPoint> findAllByTransactionIn(List<Transaction> transactions);
     Optional<RewardPoint> findByTransaction(Transaction transaction);
+
+    /**
+     * Points earned per user for transactions in {@code [start, end)}, highest first (ties by user id), streamed
+     * from a cursor so callers can keep only what they need. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id AS userId, u.nickname AS nickname, u.region AS region, u.level AS level, SUM(rp.points) AS points " +
+           "FROM RewardPoint rp JOIN rp.transaction t JOIN rp.user u " +
+           "WHERE t.txTime >= :start AND t.txTime < :end " +
+           "GROUP BY u.id, u.nickname, u.region, u.level " +
+           "ORDER BY SUM(rp.points) DESC, u.id")
+    Stream<MonthlyPointsView> streamPointsByUser(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    interface MonthlyPointsView {
+        Long getUserId();
+        String getNickname();
+        String getRegion();
+        int getLevel();
+        long getPoints();
+    }
 }
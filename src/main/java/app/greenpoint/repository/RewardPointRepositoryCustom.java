@@ -0,0 +1,32 @@
+package app.greenpoint.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC-level bulk access to reward points that bypasses entity persistence: inserts for partner batch imports,
+ * and keyset-paged reads and score updates for bulk rescoring.
+ */
+public interface RewardPointRepositoryCustom {
+
+    void insertAll(List<NewRewardPoint> rows);
+
+    /**
+     * Returns up to {@code limit} awarded, merchant-matched transactions with {@code afterTxId < tx_id <= maxTxId},
+     * in id order, optionally restricted to one merchant category and to {@code from <= tx_time < to}
+     * (null bounds are open).
+     */
+    List<AwardedRow> findAwardedAfter(long afterTxId, long maxTxId, String categoryCode,
+                                      LocalDateTime from, LocalDateTime to, int limit);
+
+    void updateScores(List<ScoreUpdate> updates);
+
+    record AwardedRow(long pointId, int esgScore, int points, TransactionRepositoryCustom.ScoringRow transaction) {
+    }
+
+    record ScoreUpdate(long pointId, int esgScore, int points) {
+    }
+
+    record NewRewardPoint(long userId, long txId, int points, int esgScore, String reason) {
+    }
+}
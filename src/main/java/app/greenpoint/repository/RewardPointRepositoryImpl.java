@@ -0,0 +1,101 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.IdGenerators;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class RewardPointRepositoryImpl implements RewardPointRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO reward_point (point_id, user_id, tx_id, points, esg_score, reason, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String AWARDED_SQL =
+            "SELECT rp.point_id, rp.esg_score, rp.points, t.tx_id, t.user_id, t.amount, t.tx_time, t.source, " +
+            "m.merchant_id, m.category_code, m.region, m.esg_tier, u.region " +
+            "FROM transaction t " +
+            "JOIN reward_point rp ON rp.tx_id = t.tx_id " +
+            "JOIN merchant m ON m.merchant_id = t.merchant_id " +
+            "JOIN app_user u ON u.user_id = t.user_id " +
+            "WHERE t.tx_id > ? AND t.tx_id <= ?";
+    private static final String UPDATE_SCORE_SQL = "UPDATE reward_point SET esg_score = ?, points = ? WHERE point_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    @Override
+    public void insertAll(List<NewRewardPoint> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        long firstId = idBlockAllocator.allocate(IdGenerators.REWARD_POINT, rows.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, indexes, BATCH_SIZE, (ps, i) -> {
+            NewRewardPoint row = rows.get(i);
+            ps.setLong(1, firstId + i);
+            ps.setLong(2, row.userId());
+            ps.setLong(3, row.txId());
+            ps.setInt(4, row.points());
+            ps.setInt(5, row.esgScore());
+            ps.setString(6, row.reason());
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    @Override
+    public List<AwardedRow> findAwardedAfter(long afterTxId, long maxTxId, String categoryCode,
+                                             LocalDateTime from, LocalDateTime to, int limit) {
+        StringBuilder sql = new StringBuilder(AWARDED_SQL);
+        List<Object> args = new ArrayList<>(List.of(afterTxId, maxTxId));
+        if (categoryCode != null) {
+            sql.append(" AND m.category_code = ?");
+            args.add(categoryCode);
+        }
+        if (from != null) {
+            sql.append(" AND t.tx_time >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND t.tx_time < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY t.tx_id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            String tier = rs.getString(12);
+            return new AwardedRow(rs.getLong(1), rs.getInt(2), rs.getInt(3), new TransactionRepositoryCustom.ScoringRow(
+                    rs.getLong(4),
+                    rs.getLong(5),
+                    rs.getInt(6),
+                    rs.getTimestamp(7).toLocalDateTime(),
+                    Transaction.Source.valueOf(rs.getString(8)),
+                    rs.getLong(9),
+                    rs.getString(10),
+                    rs.getString(11),
+                    tier != null ? Merchant.EsgTier.valueOf(tier) : null,
+                    rs.getString(13)));
+        }, args.toArray());
+    }
+
+    @Override
+    public void updateScores(List<ScoreUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SCORE_SQL, updates, BATCH_SIZE, (ps, update) -> {
+            ps.setInt(1, update.esgScore());
+            ps.setInt(2, update.points());
+            ps.setLong(3, update.pointId());
+        });
+    }
+}
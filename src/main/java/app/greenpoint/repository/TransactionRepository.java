@@ -1,13 +1,164 @@
 package app.greenpoint.repository;
 
 import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.Merchant;
 import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.TransactionHistoryDto;
+import app.greenpoint.dto.TransactionResponseDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findAllByUserAndTxTimeBetween(AppUser user, LocalDateTime start, LocalDateTime end);
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+    List<Transaction> findAllByUserAndStatusAndTxTimeBetween(AppUser user, Transaction.Status status,
+                                                             LocalDateTime start, LocalDateTime end);
     List<Transaction> findByUserOrderByTxTimeDesc(AppUser user);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Transaction t")
+    long findMaxId();
+
+    @Query("SELECT new app.greenpoint.dto.TransactionHistoryDto(t.id, t.txTime, t.amount, t.source, t.status, " +
+           "COALESCE(m.name, 'N/A'), COALESCE(c.name, 'N/A'), COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0)) " +
+           "FROM Transaction t LEFT JOIN t.merchant m " +
+           "LEFT JOIN Category c ON c.categoryCode = m.categoryCode " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.user.id = :userId ORDER BY t.txTime DESC, t.id DESC")
+    List<TransactionHistoryDto> findHistoryPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new app.greenpoint.dto.TransactionHistoryDto(t.id, t.txTime, t.amount, t.source, t.status, " +
+           "COALESCE(m.name, 'N/A'), COALESCE(c.name, 'N/A'), COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0)) " +
+           "FROM Transaction t LEFT JOIN t.merchant m " +
+           "LEFT JOIN Category c ON c.categoryCode = m.categoryCode " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.user.id = :userId " +
+           "AND (t.txTime < :txTime OR (t.txTime = :txTime AND t.id < :txId)) " +
+           "ORDER BY t.txTime DESC, t.id DESC")
+    List<TransactionHistoryDto> findHistoryPageAfter(@Param("userId") Long userId, @Param("txTime") LocalDateTime txTime,
+                                                     @Param("txId") Long txId, Pageable pageable);
+
+    @Query("SELECT new app.greenpoint.dto.TransactionResponseDto(t.id, m.id, m.name, m.lat, m.lng, " +
+           "COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0), u.points, m.esgTier, t.txTime) " +
+           "FROM Transaction t JOIN t.user u LEFT JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE u.id = :userId ORDER BY t.txTime DESC, t.id DESC")
+    List<TransactionResponseDto> findResponsePage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new app.greenpoint.dto.TransactionResponseDto(t.id, m.id, m.name, m.lat, m.lng, " +
+           "COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0), u.points, m.esgTier, t.txTime) " +
+           "FROM Transaction t JOIN t.user u LEFT JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE u.id = :userId " +
+           "AND (t.txTime < :txTime OR (t.txTime = :txTime AND t.id < :txId)) " +
+           "ORDER BY t.txTime DESC, t.id DESC")
+    List<TransactionResponseDto> findResponsePageAfter(@Param("userId") Long userId, @Param("txTime") LocalDateTime txTime,
+                                                       @Param("txId") Long txId, Pageable pageable);
+
+    /**
+     * Streams the full history with a JDBC fetch size so rows are pulled from MySQL in batches
+     * (requires useCursorFetch=true) instead of materializing the whole result. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new app.greenpoint.dto.TransactionHistoryDto(t.id, t.txTime, t.amount, t.source, t.status, " +
+           "COALESCE(m.name, 'N/A'), COALESCE(c.name, 'N/A'), COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0)) " +
+           "FROM Transaction t LEFT JOIN t.merchant m " +
+           "LEFT JOIN Category c ON c.categoryCode = m.categoryCode " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.user.id = :userId ORDER BY t.txTime DESC, t.id DESC")
+    Stream<TransactionHistoryDto> streamHistoryByUserId(@Param("userId") Long userId);
+
+    /**
+     * Streams the full history in the {@link #findResponsePage} shape, with the same fetch-size hints as
+     * {@link #streamHistoryByUserId}. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new app.greenpoint.dto.TransactionResponseDto(t.id, m.id, m.name, m.lat, m.lng, " +
+           "COALESCE(rp.esgScore, 0), COALESCE(rp.points, 0), u.points, m.esgTier, t.txTime) " +
+           "FROM Transaction t JOIN t.user u LEFT JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE u.id = :userId ORDER BY t.txTime DESC, t.id DESC")
+    Stream<TransactionResponseDto> streamResponsesByUserId(@Param("userId") Long userId);
+
+    // Set-based aggregates for the nightly report batch: one row per user (or per user and group) for the window.
+    // Like every report path, they count only transactions with the given status (CONFIRMED)
+
+    @Query("SELECT t.user.id AS userId, SUM(t.amount) AS totalSpend, COALESCE(SUM(rp.esgScore), 0) AS esgScoreTotal, " +
+           "COUNT(DISTINCT CASE WHEN m.esgTier IN :greenTiers THEN m.id ELSE NULL END) AS greenMerchantsUsed " +
+           "FROM Transaction t LEFT JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.status = :status AND t.txTime BETWEEN :start AND :end GROUP BY t.user.id ORDER BY t.user.id")
+    List<UserTotalsView> aggregateUserTotals(@Param("status") Transaction.Status status,
+                                             @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                             @Param("greenTiers") Collection<Merchant.EsgTier> greenTiers);
+
+    @Query("SELECT t.user.id AS userId, m.categoryCode AS code, COUNT(t) AS count, COALESCE(SUM(rp.points), 0) AS points " +
+           "FROM Transaction t JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.status = :status AND t.txTime BETWEEN :start AND :end AND m.categoryCode IS NOT NULL " +
+           "GROUP BY t.user.id, m.categoryCode")
+    List<UserGroupView> aggregateUserCategories(@Param("status") Transaction.Status status,
+                                                @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT t.user.id AS userId, m.name AS code, COUNT(t) AS count, COALESCE(SUM(rp.points), 0) AS points " +
+           "FROM Transaction t JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.status = :status AND t.txTime BETWEEN :start AND :end " +
+           "GROUP BY t.user.id, m.id, m.name")
+    List<UserGroupView> aggregateUserMerchants(@Param("status") Transaction.Status status,
+                                               @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT t.id AS txId, t.amount AS amount, m.id AS merchantId, m.name AS merchantName, " +
+           "m.categoryCode AS categoryCode, m.esgTier AS esgTier, " +
+           "COALESCE(rp.esgScore, 0) AS esgScore, COALESCE(rp.points, 0) AS points " +
+           "FROM Transaction t LEFT JOIN t.merchant m " +
+           "LEFT JOIN RewardPoint rp ON rp.transaction = t " +
+           "WHERE t.user.id = :userId AND t.status = :status AND t.txTime BETWEEN :start AND :end")
+    List<ContributionView> findContributions(@Param("userId") Long userId, @Param("status") Transaction.Status status,
+                                             @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    interface ContributionView {
+        Long getTxId();
+        int getAmount();
+        Long getMerchantId();
+        String getMerchantName();
+        String getCategoryCode();
+        Merchant.EsgTier getEsgTier();
+        int getEsgScore();
+        int getPoints();
+    }
+
+    interface UserTotalsView {
+        Long getUserId();
+        long getTotalSpend();
+        long getEsgScoreTotal();
+        long getGreenMerchantsUsed();
+    }
+
+    interface UserGroupView {
+        Long getUserId();
+        String getCode();
+        long getCount();
+        long getPoints();
+    }
 }
@@ -0,0 +1,47 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC-level access to transactions that bypasses entity persistence: bulk inserts for partner batch imports
+ * and streaming scans for bulk rescoring.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Inserts the rows in JDBC batches and returns their generated ids, in the order of {@code rows}.
+     */
+    List<Long> insertAll(List<NewTransaction> rows);
+
+    /**
+     * Returns the lowest and highest id among confirmed transactions with {@code from <= tx_time < to}, or empty
+     * if there are none.
+     */
+    Optional<IdRange> findConfirmedIdRange(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams the scoring inputs of confirmed, merchant-matched transactions with ids in
+     * {@code [fromId, toId]} and {@code from <= tx_time < to} to {@code consumer}, in id order, without
+     * collecting them.
+     */
+    void scanScoringRows(long fromId, long toId, LocalDateTime from, LocalDateTime to, Consumer<ScoringRow> consumer);
+
+    record IdRange(long minId, long maxId) {
+    }
+
+    record ScoringRow(long txId, long userId, int amount, LocalDateTime txTime, Transaction.Source source,
+                      long merchantId, String categoryCode, String merchantRegion, Merchant.EsgTier tier,
+                      String userRegion) {
+    }
+
+    record NewTransaction(long userId, Long merchantId, int amount, LocalDateTime txTime, BigDecimal lat, BigDecimal lng,
+                          Transaction.Source source, Transaction.Status status) {
+    }
+}
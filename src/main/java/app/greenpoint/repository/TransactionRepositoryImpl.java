@@ -0,0 +1,111 @@
+package app.greenpoint.repository;
+
+import app.greenpoint.domain.IdGenerators;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+@RequiredArgsConstructor
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final String ID_RANGE_SQL =
+            "SELECT MIN(tx_id), MAX(tx_id) FROM transaction WHERE status = 'CONFIRMED' AND tx_time >= ? AND tx_time < ?";
+    private static final String SCAN_SQL =
+            "SELECT t.tx_id, t.user_id, t.amount, t.tx_time, t.source, " +
+            "m.merchant_id, m.category_code, m.region, m.esg_tier, u.region " +
+            "FROM transaction t " +
+            "JOIN merchant m ON m.merchant_id = t.merchant_id " +
+            "JOIN app_user u ON u.user_id = t.user_id " +
+            "WHERE t.tx_id BETWEEN ? AND ? AND t.status = 'CONFIRMED' AND t.tx_time >= ? AND t.tx_time < ? " +
+            "ORDER BY t.tx_id";
+    private static final String INSERT_SQL =
+            "INSERT INTO transaction (tx_id, user_id, merchant_id, amount, tx_time, lat, lng, source, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    /**
+     * Ids are reserved up front as one block, so no generated keys need to be read back; with
+     * rewriteBatchedStatements=true the MySQL driver sends each batch as one multi-row INSERT.
+     */
+    @Override
+    public List<Long> insertAll(List<NewTransaction> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        long firstId = idBlockAllocator.allocate(IdGenerators.TRANSACTION, rows.size());
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, indexes, BATCH_SIZE, (ps, i) -> {
+            NewTransaction row = rows.get(i);
+            ps.setLong(1, firstId + i);
+            ps.setLong(2, row.userId());
+            if (row.merchantId() != null) {
+                ps.setLong(3, row.merchantId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setInt(4, row.amount());
+            ps.setTimestamp(5, Timestamp.valueOf(row.txTime()));
+            ps.setBigDecimal(6, row.lat());
+            ps.setBigDecimal(7, row.lng());
+            ps.setString(8, row.source().name());
+            ps.setString(9, row.status().name());
+        });
+        return LongStream.range(firstId, firstId + rows.size()).boxed().toList();
+    }
+
+    @Override
+    public Optional<IdRange> findConfirmedIdRange(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(ID_RANGE_SQL, rs -> {
+            rs.next(); // An aggregate without GROUP BY always returns one row
+            long minId = rs.getLong(1);
+            return rs.wasNull() ? Optional.<IdRange>empty() : Optional.of(new IdRange(minId, rs.getLong(2)));
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Rows are handed to {@code consumer} as they are read; with useCursorFetch=true the MySQL driver fetches
+     * them {@value #SCAN_FETCH_SIZE} at a time instead of buffering the whole result.
+     */
+    @Override
+    public void scanScoringRows(long fromId, long toId, LocalDateTime from, LocalDateTime to, Consumer<ScoringRow> consumer) {
+        RowCallbackHandler handler = rs -> {
+            String tier = rs.getString(9);
+            consumer.accept(new ScoringRow(
+                    rs.getLong(1),
+                    rs.getLong(2),
+                    rs.getInt(3),
+                    rs.getTimestamp(4).toLocalDateTime(),
+                    Transaction.Source.valueOf(rs.getString(5)),
+                    rs.getLong(6),
+                    rs.getString(7),
+                    rs.getString(8),
+                    tier != null ? Merchant.EsgTier.valueOf(tier) : null,
+                    rs.getString(10)));
+        };
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SCAN_SQL);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            ps.setLong(1, fromId);
+            ps.setLong(2, toId);
+            ps.setTimestamp(3, Timestamp.valueOf(from));
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            return ps;
+        }, handler);
+    }
+}
@@ -3,9 +3,17 @@ package app.greenpoint.service;
 import app.greenpoint.domain.Category;
 import app.greenpoint.domain.EsgRule;
 import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.RescoreJob;
 import app.greenpoint.dto.AdminCategoryDto;
 import app.greenpoint.dto.AdminEsgRuleDto;
 import app.greenpoint.dto.AdminMerchantDto;
+import app.greenpoint.dto.EsgSimulationRequestDto;
+import app.greenpoint.dto.EsgSimulationResultDto;
+import app.greenpoint.dto.KakaoPayResilienceStatsDto;
+import app.greenpoint.dto.RescoreJobRequestDto;
+import app.greenpoint.dto.ReportCacheStatsDto;
+import app.greenpoint.dto.TransactionBatchRequestDto;
+import app.greenpoint.dto.TransactionBatchResultDto;
 import app.greenpoint.repository.CategoryRepository;
 import app.greenpoint.repository.EsgRuleRepository;
 import app.greenpoint.repository.MerchantRepository;
@@ -15,8 +23,11 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service
@@ -29,6 +40,15 @@ public class AdminService {
     private final MerchantRepository merchantRepository;
     private final CategoryRepository categoryRepository;
     private final EsgRuleRepository esgRuleRepository;
+    private final MerchantGeoIndex merchantGeoIndex;
+    private final CategoryCatalog categoryCatalog;
+    private final ReportL1Cache reportL1Cache;
+    private final KakaoPayService kakaoPayService;
+    private final TransactionService transactionService;
+    private final EsgRuleEngine esgRuleEngine;
+    private final EsgRuleSimulator esgRuleSimulator;
+    private final RescoreJobService rescoreJobService;
+    private final RankingService rankingService;
 
     // ========== Merchant Management ==========
 
@@ -40,7 +60,9 @@ public class AdminService {
         merchant.setLng(dto.getLng());
         merchant.setRegion(dto.getRegion());
         merchant.setEsgTier(dto.getEsgTier());
-        return merchantRepository.save(merchant);
+        Merchant saved = merchantRepository.save(merchant);
+        TransactionHooks.afterCommit(() -> merchantGeoIndex.put(saved));
+        return saved;
     }
 
     public Merchant updateMerchant(Long merchantId, AdminMerchantDto dto) {
@@ -53,7 +75,9 @@ public class AdminService {
         merchant.setLng(dto.getLng());
         merchant.setRegion(dto.getRegion());
         merchant.setEsgTier(dto.getEsgTier());
-        return merchantRepository.save(merchant);
+        Merchant saved = merchantRepository.save(merchant);
+        TransactionHooks.afterCommit(() -> merchantGeoIndex.put(saved));
+        return saved;
     }
 
     public void deleteMerchant(Long merchantId) {
@@ -61,6 +85,7 @@ public class AdminService {
             throw new EntityNotFoundException("Merchant not found with id: " + merchantId);
         }
         merchantRepository.deleteById(merchantId);
+        TransactionHooks.afterCommit(() -> merchantGeoIndex.remove(merchantId));
     }
 
     @Transactional(readOnly = true)
@@ -84,7 +109,9 @@ public class AdminService {
         category.setCategoryCode(dto.getCategoryCode());
         category.setName(dto.getName());
         category.setEsgWeight(dto.getEsgWeight());
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryCatalog.invalidate();
+        return saved;
     }
 
     public Category updateCategory(String categoryCode, AdminCategoryDto dto) {
@@ -93,7 +120,9 @@ public class AdminService {
         
         category.setName(dto.getName());
         category.setEsgWeight(dto.getEsgWeight());
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryCatalog.invalidate();
+        return saved;
     }
 
     public void deleteCategory(String categoryCode) {
@@ -101,6 +130,7 @@ public class AdminService {
             throw new EntityNotFoundException("Category not found with code: " + categoryCode);
         }
         categoryRepository.deleteById(categoryCode);
+        categoryCatalog.invalidate();
     }
 
     @Transactional(readOnly = true)
@@ -111,21 +141,27 @@ public class AdminService {
     // ========== ESG Rule Management ==========
 
     public EsgRule createEsgRule(AdminEsgRuleDto dto) {
+        esgRuleEngine.validate(dto.getConditionJson(), dto.getScoreFormula());
         EsgRule esgRule = new EsgRule();
         esgRule.setName(dto.getName());
         esgRule.setConditionJson(dto.getConditionJson());
         esgRule.setScoreFormula(dto.getScoreFormula());
-        return esgRuleRepository.save(esgRule);
+        EsgRule saved = esgRuleRepository.save(esgRule);
+        esgRuleEngine.invalidate();
+        return saved;
     }
 
     public EsgRule updateEsgRule(Long ruleId, AdminEsgRuleDto dto) {
         EsgRule esgRule = esgRuleRepository.findById(ruleId)
                 .orElseThrow(() -> new EntityNotFoundException("EsgRule not found with id: " + ruleId));
+        esgRuleEngine.validate(dto.getConditionJson(), dto.getScoreFormula());
         
         esgRule.setName(dto.getName());
         esgRule.setConditionJson(dto.getConditionJson());
         esgRule.setScoreFormula(dto.getScoreFormula());
-        return esgRuleRepository.save(esgRule);
+        EsgRule saved = esgRuleRepository.save(esgRule);
+        esgRuleEngine.invalidate();
+        return saved;
     }
 
     public void deleteEsgRule(Long ruleId) {
@@ -133,6 +169,7 @@ public class AdminService {
             throw new EntityNotFoundException("EsgRule not found with id: " + ruleId);
         }
         esgRuleRepository.deleteById(ruleId);
+        esgRuleEngine.invalidate();
     }
 
     @Transactional(readOnly = true)
@@ -140,15 +177,81 @@ public class AdminService {
         return esgRuleRepository.findAll();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EsgSimulationResultDto simulateEsgScoring(EsgSimulationRequestDto dto) {
+        return esgRuleSimulator.simulate(dto);
+    }
+
+    // ========== Transaction Import ==========
+
+    public TransactionBatchResultDto importTransactions(TransactionBatchRequestDto dto) {
+        return transactionService.processBatch(dto.getTransactions());
+    }
+
+    // ========== Rescoring ==========
+
+    // The job commits its own chunks, so it must not be started inside the admin transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RescoreJob startRescoreJob(RescoreJobRequestDto dto) {
+        return rescoreJobService.start(dto);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RescoreJob resumeRescoreJob(Long jobId) {
+        return rescoreJobService.resume(jobId);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RescoreJob cancelRescoreJob(Long jobId) {
+        return rescoreJobService.cancel(jobId);
+    }
+
+    @Transactional(readOnly = true)
+    public RescoreJob getRescoreJob(Long jobId) {
+        return rescoreJobService.getJob(jobId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RescoreJob> getRecentRescoreJobs() {
+        return rescoreJobService.getRecentJobs();
+    }
+
     // ========== Batch Job Triggers ==========
 
-    public void rebuildRanking(String period) {
+    /**
+     * Rebuilds the period's ranking snapshots.
+     * @return the number of snapshots written
+     * @throws IllegalArgumentException if the period is malformed or in the future
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildRanking(String period) {
         logger.info("Manual ranking rebuild triggered for period: {}", period);
-        // In a real application, this would publish an event or call a batch job service.
+        YearMonth month;
+        try {
+            month = YearMonth.parse(period);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid period: " + period, e);
+        }
+        if (month.isAfter(YearMonth.now())) {
+            throw new IllegalArgumentException("Ranking period is in the future: " + period);
+        }
+        return rankingService.rebuildSnapshots(month);
     }
 
     public void rebuildReport(String period) {
         logger.info("Manual report rebuild triggered for period: {}", period);
         // In a real application, this would publish an event or call a batch job service.
     }
+
+    // ========== Cache Monitoring ==========
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReportCacheStatsDto getReportCacheStats() {
+        return reportL1Cache.stats();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public KakaoPayResilienceStatsDto getKakaoPayResilienceStats() {
+        return kakaoPayService.resilienceStats();
+    }
 }
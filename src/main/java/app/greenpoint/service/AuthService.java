@@ -7,6 +7,7 @@ import app.greenpoint.dto.UserSignupRequestDto;
 import app.greenpoint.jwt.JwtTokenProvider;
 import app.greenpoint.repository.AppUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -30,6 +31,9 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public AppUser signup(UserSignupRequestDto signupRequest) {
         if (appUserRepository.findByEmail(signupRequest.getEmail()).isPresent()) {
@@ -44,7 +48,9 @@ public class AuthService {
                 .role(AppUser.Role.USER)
                 .build();
 
-        return appUserRepository.save(user);
+        AppUser savedUser = appUserRepository.save(user);
+        eventPublisher.publishEvent(new UserPointsChangedEvent(savedUser.getId(), savedUser.getNickname(), 0, savedUser.getPoints()));
+        return savedUser;
     }
 
     public JwtResponseDto login(LoginRequestDto loginRequest) {
@@ -0,0 +1,75 @@
+package app.greenpoint.service;
+
+import app.greenpoint.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-mostly cache of the category table. Readers see an immutable snapshot that is
+ * replaced as a whole whenever categories change, so lookups never hit the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryCatalog {
+
+    public static final double DEFAULT_ESG_WEIGHT = 1.0;
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Map<String, Entry> snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        Map<String, Entry> loaded = categoryRepository.findAll().stream()
+                .map(c -> new Entry(c.getCategoryCode(), c.getName(), c.getEsgWeight()))
+                .collect(Collectors.collectingAndThen(
+                        Collectors.toMap(Entry::code, Function.identity()), Map::copyOf));
+        snapshot = loaded;
+        log.info("Loaded {} categories into the catalog", loaded.size());
+    }
+
+    /**
+     * Schedules a reload once the current transaction commits (or reloads immediately outside a transaction).
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(this::reload);
+    }
+
+    public Optional<Entry> find(String categoryCode) {
+        if (categoryCode == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().get(categoryCode));
+    }
+
+    public double weightOf(String categoryCode) {
+        Entry entry = (categoryCode != null) ? current().get(categoryCode) : null;
+        return (entry != null) ? entry.esgWeight() : DEFAULT_ESG_WEIGHT;
+    }
+
+    public String nameOf(String categoryCode, String fallback) {
+        Entry entry = (categoryCode != null) ? current().get(categoryCode) : null;
+        return (entry != null) ? entry.name() : fallback;
+    }
+
+    private Map<String, Entry> current() {
+        Map<String, Entry> current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    public record Entry(String code, String name, double esgWeight) {
+    }
+}
@@ -0,0 +1,192 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.repository.TransactionRepositoryCustom;
+
+/**
+ * The inputs an ESG rule can look at, extracted once per scored transaction.
+ * Instances handed out by {@link #of} are never changed afterwards. The rule engine also keeps one instance per
+ * thread that it refills for every transaction it scores ({@link #load}), so scoring with active rules does not
+ * allocate; such an instance must not be kept beyond the call it was loaded for.
+ */
+public final class EsgFacts {
+
+    static final int REGIONAL_BONUS = EsgScoreKernel.REGIONAL_BONUS;
+
+    private int amount;
+    private double baseScore;
+    private double weight;
+    private int regionalBonus;
+    private int tierBonus;
+    private Merchant.EsgTier tier;
+    private String categoryCode;
+    private String merchantRegion;
+    private String userRegion;
+    private long merchantId;
+    private int hour;
+    private int dayOfWeek;
+    private Transaction.Source source;
+
+    EsgFacts() {
+    }
+
+    static EsgFacts of(Transaction transaction, double weight) {
+        return new EsgFacts().load(transaction, weight);
+    }
+
+    static EsgFacts of(TransactionRepositoryCustom.ScoringRow row, double weight) {
+        boolean sameRegion = row.userRegion() != null && row.userRegion().equals(row.merchantRegion());
+        return new EsgFacts().set(
+                row.amount(),
+                weight,
+                sameRegion,
+                row.tier(),
+                row.categoryCode(),
+                row.merchantRegion(),
+                row.userRegion(),
+                row.merchantId(),
+                row.txTime().getHour(),
+                row.txTime().getDayOfWeek().getValue(),
+                row.source());
+    }
+
+    /**
+     * Overwrites every fact with those of {@code transaction}, which must have a merchant.
+     */
+    EsgFacts load(Transaction transaction, double weight) {
+        Merchant merchant = transaction.getMerchant();
+        AppUser user = transaction.getUser();
+        boolean sameRegion = user.getRegion() != null && user.getRegion().equals(merchant.getRegion());
+        return set(
+                transaction.getAmount(),
+                weight,
+                sameRegion,
+                merchant.getEsgTier(),
+                merchant.getCategoryCode(),
+                merchant.getRegion(),
+                user.getRegion(),
+                merchant.getId() != null ? merchant.getId() : 0,
+                transaction.getTxTime() != null ? transaction.getTxTime().getHour() : 0,
+                transaction.getTxTime() != null ? transaction.getTxTime().getDayOfWeek().getValue() : 0,
+                transaction.getSource());
+    }
+
+    private EsgFacts set(int amount, double weight, boolean sameRegion, Merchant.EsgTier tier, String categoryCode,
+                         String merchantRegion, String userRegion, long merchantId, int hour, int dayOfWeek,
+                         Transaction.Source source) {
+        this.amount = amount;
+        this.baseScore = baseScoreFor(amount);
+        this.weight = weight;
+        this.regionalBonus = sameRegion ? REGIONAL_BONUS : 0;
+        this.tierBonus = tierBonusFor(tier);
+        this.tier = tier;
+        this.categoryCode = categoryCode;
+        this.merchantRegion = merchantRegion;
+        this.userRegion = userRegion;
+        this.merchantId = merchantId;
+        this.hour = hour;
+        this.dayOfWeek = dayOfWeek;
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * Base score: floor(10 * log10(amount + 10)).
+     */
+    static double baseScoreFor(int amount) {
+        return EsgScoreKernel.baseScore(amount);
+    }
+
+    static int tierBonusFor(Merchant.EsgTier tier) {
+        return EsgScoreKernel.tierBonus(EsgScoreKernel.tierOrdinal(tier));
+    }
+
+    /**
+     * Returns these facts with a different category weight, as a new instance unless the weight is unchanged.
+     */
+    EsgFacts withWeight(double newWeight) {
+        if (newWeight == weight) {
+            return this;
+        }
+        EsgFacts copy = new EsgFacts();
+        copy.amount = amount;
+        copy.baseScore = baseScore;
+        copy.weight = newWeight;
+        copy.regionalBonus = regionalBonus;
+        copy.tierBonus = tierBonus;
+        copy.tier = tier;
+        copy.categoryCode = categoryCode;
+        copy.merchantRegion = merchantRegion;
+        copy.userRegion = userRegion;
+        copy.merchantId = merchantId;
+        copy.hour = hour;
+        copy.dayOfWeek = dayOfWeek;
+        copy.source = source;
+        return copy;
+    }
+
+    public int amount() {
+        return amount;
+    }
+
+    public double baseScore() {
+        return baseScore;
+    }
+
+    public double weight() {
+        return weight;
+    }
+
+    public int regionalBonus() {
+        return regionalBonus;
+    }
+
+    public int tierBonus() {
+        return tierBonus;
+    }
+
+    public Merchant.EsgTier tier() {
+        return tier;
+    }
+
+    public String categoryCode() {
+        return categoryCode;
+    }
+
+    public String merchantRegion() {
+        return merchantRegion;
+    }
+
+    public String userRegion() {
+        return userRegion;
+    }
+
+    public long merchantId() {
+        return merchantId;
+    }
+
+    public int hour() {
+        return hour;
+    }
+
+    public int dayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public Transaction.Source source() {
+        return source;
+    }
+
+    public boolean sameRegion() {
+        return regionalBonus > 0;
+    }
+
+    /**
+     * The built-in score every rule set starts from: base score times category weight plus the bonuses.
+     */
+    public double defaultScore() {
+        return baseScore * weight + regionalBonus + tierBonus;
+    }
+}
@@ -0,0 +1,426 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compiles {@code EsgRule.conditionJson} and {@code EsgRule.scoreFormula} into trees of lambdas, so scoring
+ * never parses text, looks anything up by name or reflects at evaluation time.
+ * <p>
+ * Conditions are JSON: {@code {"all": [...]}}, {@code {"any": [...]}}, {@code {"not": {...}}} or a leaf
+ * {@code {"field": "tier", "op": "in", "value": ["A", "B"]}}. Numeric fields are {@code amount}, {@code hour},
+ * {@code dayOfWeek} (1 = Monday), {@code merchantId} and {@code weight}; text fields are {@code tier},
+ * {@code category}, {@code merchantRegion}, {@code userRegion} and {@code source}; {@code sameRegion} is boolean.
+ * Operators are {@code eq} (default), {@code ne}, {@code gt}, {@code gte}, {@code lt}, {@code lte} and {@code in}.
+ * A blank condition always matches.
+ * <p>
+ * Formulas are arithmetic ({@code + - * /}, parentheses, unary minus) over the variables {@code score} (the
+ * score so far), {@code baseScore}, {@code weight}, {@code regionalBonus}, {@code tierBonus}, {@code amount} and
+ * {@code hour}, with the functions {@code floor}, {@code ceil}, {@code round}, {@code abs}, {@code log10},
+ * {@code min} and {@code max}. Invalid input fails with {@link IllegalArgumentException}.
+ */
+final class EsgRuleCompiler {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private EsgRuleCompiler() {
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        boolean test(EsgFacts facts);
+    }
+
+    @FunctionalInterface
+    interface Formula {
+        double apply(EsgFacts facts, double score);
+    }
+
+    static Condition compileCondition(String conditionJson) {
+        if (conditionJson == null || conditionJson.isBlank()) {
+            return facts -> true;
+        }
+        JsonNode root;
+        try {
+            root = JSON.readTree(conditionJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Condition is not valid JSON: " + e.getOriginalMessage());
+        }
+        return compileCondition(root);
+    }
+
+    static Formula compileFormula(String formula) {
+        if (formula == null || formula.isBlank()) {
+            throw new IllegalArgumentException("Score formula is required");
+        }
+        return new FormulaParser(formula).parse();
+    }
+
+    private static Condition compileCondition(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Condition must be a JSON object: " + node);
+        }
+        if (node.has("all")) {
+            Condition[] parts = compileAll(node.get("all"), "all");
+            return facts -> {
+                for (Condition part : parts) {
+                    if (!part.test(facts)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        if (node.has("any")) {
+            Condition[] parts = compileAll(node.get("any"), "any");
+            return facts -> {
+                for (Condition part : parts) {
+                    if (part.test(facts)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        if (node.has("not")) {
+            Condition inner = compileCondition(node.get("not"));
+            return facts -> !inner.test(facts);
+        }
+        if (node.has("field")) {
+            return compileLeaf(node.get("field").asText(), node.path("op").asText("eq"), node.get("value"));
+        }
+        throw new IllegalArgumentException("Condition needs one of all, any, not or field: " + node);
+    }
+
+    private static Condition[] compileAll(JsonNode array, String key) {
+        if (!array.isArray() || array.isEmpty()) {
+            throw new IllegalArgumentException("'" + key + "' must be a non-empty array");
+        }
+        List<Condition> parts = new ArrayList<>();
+        array.forEach(child -> parts.add(compileCondition(child)));
+        return parts.toArray(Condition[]::new);
+    }
+
+    private static Condition compileLeaf(String field, String op, JsonNode value) {
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Condition on '" + field + "' needs a value");
+        }
+        return switch (field) {
+            case "amount" -> numeric(field, op, value, EsgFacts::amount);
+            case "hour" -> numeric(field, op, value, EsgFacts::hour);
+            case "dayOfWeek" -> numeric(field, op, value, EsgFacts::dayOfWeek);
+            case "merchantId" -> numeric(field, op, value, EsgFacts::merchantId);
+            case "weight" -> numeric(field, op, value, EsgFacts::weight);
+            case "tier" -> enumerated(field, op, value, Merchant.EsgTier.class, EsgFacts::tier);
+            case "source" -> enumerated(field, op, value, Transaction.Source.class, EsgFacts::source);
+            case "category" -> text(field, op, value, EsgFacts::categoryCode);
+            case "merchantRegion" -> text(field, op, value, EsgFacts::merchantRegion);
+            case "userRegion" -> text(field, op, value, EsgFacts::userRegion);
+            case "sameRegion" -> {
+                if (!value.isBoolean()) {
+                    throw new IllegalArgumentException("'sameRegion' takes true or false");
+                }
+                boolean expected = value.asBoolean();
+                yield switch (op) {
+                    case "eq" -> facts -> facts.sameRegion() == expected;
+                    case "ne" -> facts -> facts.sameRegion() != expected;
+                    default -> throw unsupportedOperator(field, op);
+                };
+            }
+            default -> throw new IllegalArgumentException("Unknown condition field: " + field);
+        };
+    }
+
+    private static Condition numeric(String field, String op, JsonNode value, ToDoubleFunction<EsgFacts> getter) {
+        if (op.equals("in")) {
+            double[] options = toList(field, value).stream().mapToDouble(v -> number(field, v)).toArray();
+            return facts -> {
+                double actual = getter.applyAsDouble(facts);
+                for (double option : options) {
+                    if (actual == option) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        double expected = number(field, value);
+        return switch (op) {
+            case "eq" -> facts -> getter.applyAsDouble(facts) == expected;
+            case "ne" -> facts -> getter.applyAsDouble(facts) != expected;
+            case "gt" -> facts -> getter.applyAsDouble(facts) > expected;
+            case "gte" -> facts -> getter.applyAsDouble(facts) >= expected;
+            case "lt" -> facts -> getter.applyAsDouble(facts) < expected;
+            case "lte" -> facts -> getter.applyAsDouble(facts) <= expected;
+            default -> throw unsupportedOperator(field, op);
+        };
+    }
+
+    private static <E extends Enum<E>> Condition enumerated(String field, String op, JsonNode value, Class<E> type,
+                                                            Function<EsgFacts, E> getter) {
+        Set<E> options = EnumSet.noneOf(type);
+        for (JsonNode v : (op.equals("in") ? toList(field, value) : List.of(value))) {
+            try {
+                options.add(Enum.valueOf(type, v.asText()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + field + " value: " + v.asText());
+            }
+        }
+        return switch (op) {
+            case "eq", "in" -> facts -> options.contains(getter.apply(facts));
+            case "ne" -> facts -> !options.contains(getter.apply(facts));
+            default -> throw unsupportedOperator(field, op);
+        };
+    }
+
+    private static Condition text(String field, String op, JsonNode value, Function<EsgFacts, String> getter) {
+        Set<String> options = new HashSet<>();
+        for (JsonNode v : (op.equals("in") ? toList(field, value) : List.of(value))) {
+            options.add(v.asText());
+        }
+        Set<String> frozen = Set.copyOf(options);
+        return switch (op) {
+            case "eq", "in" -> facts -> getter.apply(facts) != null && frozen.contains(getter.apply(facts));
+            case "ne" -> facts -> getter.apply(facts) == null || !frozen.contains(getter.apply(facts));
+            default -> throw unsupportedOperator(field, op);
+        };
+    }
+
+    private static List<JsonNode> toList(String field, JsonNode value) {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new IllegalArgumentException("'in' on '" + field + "' needs a non-empty array");
+        }
+        List<JsonNode> values = new ArrayList<>();
+        for (Iterator<JsonNode> it = value.elements(); it.hasNext(); ) {
+            values.add(it.next());
+        }
+        return values;
+    }
+
+    private static double number(String field, JsonNode value) {
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("'" + field + "' compares against numbers, got: " + value);
+        }
+        return value.asDouble();
+    }
+
+    private static IllegalArgumentException unsupportedOperator(String field, String op) {
+        return new IllegalArgumentException("Operator '" + op + "' is not supported for '" + field + "'");
+    }
+
+    /**
+     * Recursive-descent parser producing a lambda tree; constant sub-expressions are folded.
+     */
+    private static final class FormulaParser {
+
+        private final String text;
+        private int pos;
+
+        private FormulaParser(String text) {
+            this.text = text;
+        }
+
+        private Formula parse() {
+            Node node = expression();
+            skipWhitespace();
+            if (pos < text.length()) {
+                throw error("Unexpected '" + text.charAt(pos) + "'");
+            }
+            return node.formula;
+        }
+
+        private Node expression() {
+            Node left = term();
+            while (true) {
+                if (accept('+')) {
+                    left = Node.binary(left, term(), '+');
+                } else if (accept('-')) {
+                    left = Node.binary(left, term(), '-');
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node term() {
+            Node left = unary();
+            while (true) {
+                if (accept('*')) {
+                    left = Node.binary(left, unary(), '*');
+                } else if (accept('/')) {
+                    left = Node.binary(left, unary(), '/');
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node unary() {
+            if (accept('-')) {
+                Node operand = unary();
+                if (operand.constant) {
+                    return Node.constant(-operand.value);
+                }
+                Formula f = operand.formula;
+                return Node.of((facts, score) -> -f.apply(facts, score));
+            }
+            return primary();
+        }
+
+        private Node primary() {
+            skipWhitespace();
+            if (accept('(')) {
+                Node inner = expression();
+                expect(')');
+                return inner;
+            }
+            if (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                return number();
+            }
+            if (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+                String name = identifier();
+                return accept('(') ? function(name) : variable(name);
+            }
+            throw error(pos < text.length() ? "Unexpected '" + text.charAt(pos) + "'" : "Unexpected end of formula");
+        }
+
+        private Node number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return Node.constant(Double.parseDouble(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + text.substring(start, pos) + "'");
+            }
+        }
+
+        private String identifier() {
+            int start = pos;
+            while (pos < text.length() && Character.isLetterOrDigit(text.charAt(pos))) {
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        private Node variable(String name) {
+            return Node.of(switch (name) {
+                case "score" -> (facts, score) -> score;
+                case "baseScore" -> (facts, score) -> facts.baseScore();
+                case "weight" -> (facts, score) -> facts.weight();
+                case "regionalBonus" -> (facts, score) -> facts.regionalBonus();
+                case "tierBonus" -> (facts, score) -> facts.tierBonus();
+                case "amount" -> (facts, score) -> facts.amount();
+                case "hour" -> (facts, score) -> facts.hour();
+                default -> throw error("Unknown variable '" + name + "'");
+            });
+        }
+
+        private Node function(String name) {
+            List<Node> args = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    args.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            int arity = switch (name) {
+                case "floor", "ceil", "round", "abs", "log10" -> 1;
+                case "min", "max" -> 2;
+                default -> throw error("Unknown function '" + name + "'");
+            };
+            if (args.size() != arity) {
+                throw error(name + "() takes " + arity + " argument(s)");
+            }
+            Formula a = args.get(0).formula;
+            Node node = switch (name) {
+                case "floor" -> Node.of((facts, score) -> Math.floor(a.apply(facts, score)));
+                case "ceil" -> Node.of((facts, score) -> Math.ceil(a.apply(facts, score)));
+                case "round" -> Node.of((facts, score) -> Math.round(a.apply(facts, score)));
+                case "abs" -> Node.of((facts, score) -> Math.abs(a.apply(facts, score)));
+                case "log10" -> Node.of((facts, score) -> Math.log10(a.apply(facts, score)));
+                case "min" -> {
+                    Formula b = args.get(1).formula;
+                    yield Node.of((facts, score) -> Math.min(a.apply(facts, score), b.apply(facts, score)));
+                }
+                default -> {
+                    Formula b = args.get(1).formula;
+                    yield Node.of((facts, score) -> Math.max(a.apply(facts, score), b.apply(facts, score)));
+                }
+            };
+            return args.stream().allMatch(arg -> arg.constant) ? Node.constant(node.formula.apply(null, 0)) : node;
+        }
+
+        private boolean accept(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in formula: " + text);
+        }
+    }
+
+    private record Node(Formula formula, boolean constant, double value) {
+
+        static Node of(Formula formula) {
+            return new Node(formula, false, 0);
+        }
+
+        static Node constant(double value) {
+            return new Node((facts, score) -> value, true, value);
+        }
+
+        static Node binary(Node left, Node right, char op) {
+            if (left.constant && right.constant) {
+                return constant(apply(op, left.value, right.value));
+            }
+            Formula l = left.formula;
+            Formula r = right.formula;
+            return of(switch (op) {
+                case '+' -> (facts, score) -> l.apply(facts, score) + r.apply(facts, score);
+                case '-' -> (facts, score) -> l.apply(facts, score) - r.apply(facts, score);
+                case '*' -> (facts, score) -> l.apply(facts, score) * r.apply(facts, score);
+                default -> (facts, score) -> l.apply(facts, score) / r.apply(facts, score);
+            });
+        }
+
+        private static double apply(char op, double a, double b) {
+            return switch (op) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                default -> a / b;
+            };
+        }
+    }
+}
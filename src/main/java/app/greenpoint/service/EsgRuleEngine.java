@@ -0,0 +1,156 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.EsgRule;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.repository.EsgRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores transactions against the admin-managed {@link EsgRule}s. Every score starts from the built-in
+ * formula ({@link EsgFacts#defaultScore()}); each rule whose condition matches, in id order, then replaces
+ * the running {@code score} with its formula. Rules are compiled once (see {@link EsgRuleCompiler}) into an
+ * immutable rule set that is swapped as a whole after any rule change commits, so scoring never parses and
+ * readers never see a half-updated set. Stored rules that fail to compile are skipped with a warning.
+ * Facts are collected into a per-thread instance that is refilled for every transaction, so scoring does not
+ * allocate. A rule whose formula yields NaN or an infinity for a transaction (e.g. {@code score / 0}) is ignored for
+ * that transaction, and the final score is clamped so that its points still fit an {@code int}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EsgRuleEngine {
+
+    static final int MAX_SCORE = Integer.MAX_VALUE / TransactionService.POINT_MULTIPLIER;
+
+    private static final ThreadLocal<EsgFacts> FACTS = ThreadLocal.withInitial(EsgFacts::new);
+
+    private final EsgRuleRepository esgRuleRepository;
+    private final CategoryCatalog categoryCatalog;
+
+    private volatile CompiledRule[] rules;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        install(esgRuleRepository.findAll(Sort.by("id")));
+    }
+
+    /**
+     * Schedules a reload once the current transaction commits (or reloads immediately outside a transaction).
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(this::reload);
+    }
+
+    /**
+     * Compiles the rule without installing it.
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    public void validate(String conditionJson, String scoreFormula) {
+        EsgRuleCompiler.compileCondition(conditionJson);
+        EsgRuleCompiler.compileFormula(scoreFormula);
+    }
+
+    public int score(Transaction transaction) {
+        if (transaction.getMerchant() == null) {
+            return 0; // No merchant, no score
+        }
+        Merchant merchant = transaction.getMerchant();
+        double weight = categoryCatalog.weightOf(merchant.getCategoryCode());
+        if (current().length == 0) {
+            // Nothing can override the built-in formula, so skip collecting facts and run the kernel directly
+            String userRegion = transaction.getUser().getRegion();
+            return EsgScoreKernel.score(transaction.getAmount(), weight,
+                    EsgScoreKernel.tierOrdinal(merchant.getEsgTier()),
+                    userRegion != null && userRegion.equals(merchant.getRegion()));
+        }
+        return score(FACTS.get().load(transaction, weight));
+    }
+
+    public int score(EsgFacts facts) {
+        return score(facts, current());
+    }
+
+    /**
+     * Scores {@code facts} against an explicit rule set, such as a candidate set being simulated.
+     */
+    static int score(EsgFacts facts, CompiledRule[] rules) {
+        double score = facts.defaultScore();
+        for (CompiledRule rule : rules) {
+            if (rule.condition().test(facts)) {
+                double next = rule.formula().apply(facts, score);
+                if (Double.isFinite(next)) {
+                    score = next;
+                } else {
+                    log.debug("Ignoring ESG rule {} ({}): formula evaluated to {}", rule.id(), rule.name(), next);
+                }
+            }
+        }
+        return (int) Math.round(Math.clamp(score, -MAX_SCORE, MAX_SCORE));
+    }
+
+    public int activeRuleCount() {
+        return current().length;
+    }
+
+    /**
+     * The rule set scoring currently runs against.
+     */
+    CompiledRule[] activeRules() {
+        return current();
+    }
+
+    /**
+     * Compiles a candidate rule set in order. Unlike {@link #install}, an invalid rule fails the whole set.
+     * @throws IllegalArgumentException naming the first rule that does not compile
+     */
+    static CompiledRule[] compileAll(List<EsgRule> source) {
+        CompiledRule[] compiled = new CompiledRule[source.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            EsgRule rule = source.get(i);
+            try {
+                compiled[i] = new CompiledRule(rule.getId(), rule.getName(),
+                        EsgRuleCompiler.compileCondition(rule.getConditionJson()),
+                        EsgRuleCompiler.compileFormula(rule.getScoreFormula()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule '" + rule.getName() + "': " + e.getMessage(), e);
+            }
+        }
+        return compiled;
+    }
+
+    void install(List<EsgRule> source) {
+        List<CompiledRule> compiled = new ArrayList<>(source.size());
+        for (EsgRule rule : source) {
+            try {
+                compiled.add(new CompiledRule(rule.getId(), rule.getName(),
+                        EsgRuleCompiler.compileCondition(rule.getConditionJson()),
+                        EsgRuleCompiler.compileFormula(rule.getScoreFormula())));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping ESG rule {} ({}): {}", rule.getId(), rule.getName(), e.getMessage());
+            }
+        }
+        rules = compiled.toArray(CompiledRule[]::new);
+        log.info("Compiled {} of {} ESG rules", compiled.size(), source.size());
+    }
+
+    private CompiledRule[] current() {
+        CompiledRule[] current = rules;
+        if (current == null) {
+            reload();
+            current = rules;
+        }
+        return current;
+    }
+
+    record CompiledRule(Long id, String name, EsgRuleCompiler.Condition condition, EsgRuleCompiler.Formula formula) {
+    }
+}
@@ -0,0 +1,309 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.EsgRule;
+import app.greenpoint.dto.AdminEsgRuleDto;
+import app.greenpoint.dto.EsgSimulationGroupDto;
+import app.greenpoint.dto.EsgSimulationRequestDto;
+import app.greenpoint.dto.EsgSimulationResultDto;
+import app.greenpoint.repository.TransactionRepository;
+import app.greenpoint.repository.TransactionRepositoryCustom;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * What-if replay of historical transactions through a candidate scoring setup (category weights and/or rule
+ * set), compared with the live one. Confirmed transactions in the date range are split into id ranges that a
+ * fork-join pool scans in parallel; each scan streams its rows over JDBC and folds them into per-group tallies
+ * that are merged on the way back up, so no rows are kept in memory. Both sides are recomputed from the same
+ * rows, so the deltas reflect only the proposed change and not rules that changed since points were awarded.
+ * All simulations share one pool that never grows past {@code esg.simulation.parallelism} threads, so they hold
+ * at most that many pooled connections between them, and at most {@code esg.simulation.max-concurrent} run at once;
+ * further requests are refused rather than queued.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EsgRuleSimulator {
+
+    static final String ALL = "ALL";
+    static final String NONE = "NONE";
+
+    private final TransactionRepository transactionRepository;
+    private final CategoryCatalog categoryCatalog;
+    private final EsgRuleEngine esgRuleEngine;
+
+    @Value("${esg.simulation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${esg.simulation.chunk-ids:20000}")
+    private long chunkIds;
+
+    @Value("${esg.simulation.max-concurrent:1}")
+    private int maxConcurrent;
+
+    private ForkJoinPool pool;
+    private Semaphore running;
+
+    @PostConstruct
+    void start() {
+        // Joins never add compensating threads beyond the cap; a saturated pool just runs with fewer threads
+        pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+                0, parallelism, 1, p -> true, 60, TimeUnit.SECONDS);
+        running = new Semaphore(maxConcurrent);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the range, a weight or a candidate rule is invalid
+     * @throws IllegalStateException if {@code esg.simulation.max-concurrent} simulations are already running
+     */
+    public EsgSimulationResultDto simulate(EsgSimulationRequestDto request) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        Scenario scenario = scenarioFor(request);
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("Another ESG simulation is running; try again later");
+        }
+        try {
+            return run(request, scenario);
+        } finally {
+            running.release();
+        }
+    }
+
+    private EsgSimulationResultDto run(EsgSimulationRequestDto request, Scenario scenario) {
+        LocalDateTime from = request.getFrom().atStartOfDay();
+        LocalDateTime to = request.getTo().plusDays(1).atStartOfDay();
+        long startNanos = System.nanoTime();
+
+        Tally tally = transactionRepository.findConfirmedIdRange(from, to)
+                .map(range -> pool.invoke(new RangeScan(scenario, range.minId(), range.maxId(), from, to)))
+                .orElseGet(Tally::new);
+
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Simulated ESG scoring for {} transactions between {} and {} in {} ms (points {} -> {})",
+                tally.total.count, request.getFrom(), request.getTo(), elapsedMs,
+                tally.total.currentPoints, tally.total.candidatePoints);
+        return tally.toDto(request, elapsedMs);
+    }
+
+    private Scenario scenarioFor(EsgSimulationRequestDto request) {
+        Map<String, Double> overrides = request.getCategoryWeights() != null ? Map.copyOf(request.getCategoryWeights()) : Map.of();
+        overrides.forEach((code, weight) -> {
+            if (weight == null || !Double.isFinite(weight) || weight < 0) {
+                throw new IllegalArgumentException("Weight for category '" + code + "' must be a non-negative number");
+            }
+        });
+        EsgRuleEngine.CompiledRule[] currentRules = esgRuleEngine.activeRules();
+        EsgRuleEngine.CompiledRule[] candidateRules = currentRules;
+        if (request.getRules() != null) {
+            List<EsgRule> rules = request.getRules().stream().map(EsgRuleSimulator::toRule).toList();
+            candidateRules = EsgRuleEngine.compileAll(rules);
+        }
+        return new Scenario(currentRules, candidateRules, categoryCatalog::weightOf, overrides);
+    }
+
+    private static EsgRule toRule(AdminEsgRuleDto dto) {
+        return EsgRule.builder().name(dto.getName()).conditionJson(dto.getConditionJson()).scoreFormula(dto.getScoreFormula()).build();
+    }
+
+    /**
+     * Scores a row under both setups. Weights are resolved once per row; category lookups hit the catalog snapshot.
+     */
+    record Scenario(EsgRuleEngine.CompiledRule[] currentRules, EsgRuleEngine.CompiledRule[] candidateRules,
+                    ToDoubleFunction<String> currentWeight, Map<String, Double> weightOverrides) {
+
+        void replay(TransactionRepositoryCustom.ScoringRow row, Tally tally) {
+            double weight = currentWeight.applyAsDouble(row.categoryCode());
+            EsgFacts current = EsgFacts.of(row, weight);
+            EsgFacts candidate = current.withWeight(weightOverrides.getOrDefault(row.categoryCode(), weight));
+            tally.add(current, EsgRuleEngine.score(current, currentRules), EsgRuleEngine.score(candidate, candidateRules));
+        }
+    }
+
+    /**
+     * Scans one id range, splitting it in half until it is at most {@code chunkIds} wide.
+     */
+    private final class RangeScan extends RecursiveTask<Tally> {
+
+        private final Scenario scenario;
+        private final long fromId;
+        private final long toId;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private RangeScan(Scenario scenario, long fromId, long toId, LocalDateTime from, LocalDateTime to) {
+            this.scenario = scenario;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toId - fromId < chunkIds) {
+                Tally tally = new Tally();
+                transactionRepository.scanScoringRows(fromId, toId, from, to, row -> scenario.replay(row, tally));
+                return tally;
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeScan left = new RangeScan(scenario, fromId, mid, from, to);
+            left.fork();
+            Tally right = new RangeScan(scenario, mid + 1, toId, from, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Score and point deltas for the whole range and per category, tier and merchant region.
+     */
+    static final class Tally {
+
+        final DeltaStats total = new DeltaStats();
+        final Map<String, DeltaStats> byCategory = new HashMap<>();
+        final Map<String, DeltaStats> byTier = new HashMap<>();
+        final Map<String, DeltaStats> byRegion = new HashMap<>();
+
+        void add(EsgFacts facts, int currentScore, int candidateScore) {
+            total.add(currentScore, candidateScore);
+            group(byCategory, facts.categoryCode()).add(currentScore, candidateScore);
+            group(byTier, facts.tier() != null ? facts.tier().name() : null).add(currentScore, candidateScore);
+            group(byRegion, facts.merchantRegion()).add(currentScore, candidateScore);
+        }
+
+        Tally merge(Tally other) {
+            total.merge(other.total);
+            mergeGroups(byCategory, other.byCategory);
+            mergeGroups(byTier, other.byTier);
+            mergeGroups(byRegion, other.byRegion);
+            return this;
+        }
+
+        private EsgSimulationResultDto toDto(EsgSimulationRequestDto request, long elapsedMs) {
+            return new EsgSimulationResultDto(request.getFrom(), request.getTo(), elapsedMs, total.toDto(ALL),
+                    toDtos(byCategory), toDtos(byTier), toDtos(byRegion));
+        }
+
+        private static DeltaStats group(Map<String, DeltaStats> groups, String key) {
+            return groups.computeIfAbsent(key != null ? key : NONE, k -> new DeltaStats());
+        }
+
+        private static void mergeGroups(Map<String, DeltaStats> target, Map<String, DeltaStats> source) {
+            source.forEach((key, stats) -> target.merge(key, stats, DeltaStats::merge));
+        }
+
+        /**
+         * Groups with the largest point impact first.
+         */
+        private static List<EsgSimulationGroupDto> toDtos(Map<String, DeltaStats> groups) {
+            return groups.entrySet().stream()
+                    .map(e -> e.getValue().toDto(e.getKey()))
+                    .sorted(Comparator.comparingLong((EsgSimulationGroupDto g) -> Math.abs(g.getPointsDelta())).reversed()
+                            .thenComparing(EsgSimulationGroupDto::getKey))
+                    .toList();
+        }
+    }
+
+    /**
+     * Counts plus a histogram of per-transaction score deltas, clamped to {@code ±MAX_TRACKED_DELTA}, from which
+     * percentiles are read. Min and max are exact.
+     */
+    static final class DeltaStats {
+
+        static final int MAX_TRACKED_DELTA = 100;
+
+        private final long[] histogram = new long[2 * MAX_TRACKED_DELTA + 1];
+        long count;
+        long increased;
+        long decreased;
+        long currentPoints;
+        long candidatePoints;
+        long scoreDeltaSum;
+        int minDelta = Integer.MAX_VALUE;
+        int maxDelta = Integer.MIN_VALUE;
+
+        void add(int currentScore, int candidateScore) {
+            int delta = candidateScore - currentScore;
+            count++;
+            if (delta > 0) {
+                increased++;
+            } else if (delta < 0) {
+                decreased++;
+            }
+            currentPoints += (long) currentScore * TransactionService.POINT_MULTIPLIER;
+            candidatePoints += (long) candidateScore * TransactionService.POINT_MULTIPLIER;
+            scoreDeltaSum += delta;
+            minDelta = Math.min(minDelta, delta);
+            maxDelta = Math.max(maxDelta, delta);
+            histogram[Math.clamp(delta, -MAX_TRACKED_DELTA, MAX_TRACKED_DELTA) + MAX_TRACKED_DELTA]++;
+        }
+
+        DeltaStats merge(DeltaStats other) {
+            count += other.count;
+            increased += other.increased;
+            decreased += other.decreased;
+            currentPoints += other.currentPoints;
+            candidatePoints += other.candidatePoints;
+            scoreDeltaSum += other.scoreDeltaSum;
+            minDelta = Math.min(minDelta, other.minDelta);
+            maxDelta = Math.max(maxDelta, other.maxDelta);
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            return this;
+        }
+
+        /**
+         * Nearest-rank percentile of the score delta, {@code 0 < fraction <= 1}; 0 when empty.
+         */
+        int percentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return Math.clamp(i - MAX_TRACKED_DELTA, minDelta, maxDelta);
+                }
+            }
+            return maxDelta;
+        }
+
+        private EsgSimulationGroupDto toDto(String key) {
+            Map<Integer, Long> buckets = new TreeMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    buckets.put(i - MAX_TRACKED_DELTA, histogram[i]);
+                }
+            }
+            return new EsgSimulationGroupDto(key, count, increased, decreased, currentPoints, candidatePoints,
+                    candidatePoints - currentPoints, count > 0 ? (double) scoreDeltaSum / count : 0,
+                    count > 0 ? minDelta : 0, percentile(0.1), percentile(0.5), percentile(0.9), count > 0 ? maxDelta : 0,
+                    buckets);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+
+import java.util.Arrays;
+
+/**
+ * The built-in ESG score over primitive inputs, with no entity access, boxing or allocation:
+ * {@code round(floor(10 * log10(amount + 10)) * weight + regionalBonus + tierBonus)}.
+ * <p>
+ * The base score is a step function of the amount, so instead of calling {@code Math.log10} it is read from
+ * a table of the smallest amount reaching each step (about 85 entries cover every non-negative {@code int}).
+ * The amount's bit length picks the first candidate step and, since doubling an amount adds at most four
+ * steps, a few comparisons finish the lookup with exactly the value {@code Math.log10} would give.
+ */
+public final class EsgScoreKernel {
+
+    public static final int REGIONAL_BONUS = 2;
+
+    /**
+     * Bonus per {@link Merchant.EsgTier} ordinal (A, B, C, D).
+     */
+    private static final int[] TIER_BONUS = {3, 2, 1, 0};
+
+    private static final int FIRST_STEP = 10; // base score of amount 0
+    private static final int[] STEP_THRESHOLDS = buildThresholds();
+    private static final int[] FIRST_STEP_BY_BIT_LENGTH = buildBitLengthIndex();
+
+    private EsgScoreKernel() {
+    }
+
+    public static int score(int amount, double weight, int tierOrdinal, boolean sameRegion) {
+        return (int) Math.round(defaultScore(amount, weight, tierOrdinal, sameRegion));
+    }
+
+    public static double defaultScore(int amount, double weight, int tierOrdinal, boolean sameRegion) {
+        return baseScore(amount) * weight + (sameRegion ? REGIONAL_BONUS : 0) + tierBonus(tierOrdinal);
+    }
+
+    /**
+     * {@code floor(10 * log10(amount + 10))}; negative amounts fall back to {@code Math.log10}.
+     */
+    public static double baseScore(int amount) {
+        if (amount < 0) {
+            return Math.floor(10 * Math.log10(amount + 10.0));
+        }
+        int index = FIRST_STEP_BY_BIT_LENGTH[Integer.SIZE - Integer.numberOfLeadingZeros(amount)];
+        while (index + 1 < STEP_THRESHOLDS.length && STEP_THRESHOLDS[index + 1] <= amount) {
+            index++;
+        }
+        return FIRST_STEP + index;
+    }
+
+    /**
+     * @param tierOrdinal {@link Merchant.EsgTier#ordinal()}, or -1 when the merchant has no tier
+     */
+    public static int tierBonus(int tierOrdinal) {
+        return (tierOrdinal >= 0 && tierOrdinal < TIER_BONUS.length) ? TIER_BONUS[tierOrdinal] : 0;
+    }
+
+    public static int tierOrdinal(Merchant.EsgTier tier) {
+        return tier != null ? tier.ordinal() : -1;
+    }
+
+    /**
+     * STEP_THRESHOLDS[i] is the smallest non-negative amount whose base score is FIRST_STEP + i, found by
+     * probing Math.log10 itself so table and formula agree on every boundary.
+     */
+    private static int[] buildThresholds() {
+        int[] thresholds = new int[128];
+        int count = 0;
+        thresholds[count++] = 0;
+        for (int step = FIRST_STEP + 1; ; step++) {
+            double estimate = Math.ceil(Math.pow(10, step / 10.0)) - 10;
+            if (estimate > Integer.MAX_VALUE) {
+                break;
+            }
+            int amount = (int) Math.max(estimate, 0);
+            while (amount > 0 && referenceBase(amount - 1) >= step) {
+                amount--;
+            }
+            while (referenceBase(amount) < step) {
+                amount++;
+            }
+            thresholds[count++] = amount;
+        }
+        return Arrays.copyOf(thresholds, count);
+    }
+
+    /**
+     * Entry b is the step of the smallest amount with bit length b.
+     */
+    private static int[] buildBitLengthIndex() {
+        int[] index = new int[Integer.SIZE + 1];
+        for (int bits = 0; bits <= Integer.SIZE - 1; bits++) {
+            int smallest = bits == 0 ? 0 : 1 << (bits - 1);
+            int step = 0;
+            while (step + 1 < STEP_THRESHOLDS.length && STEP_THRESHOLDS[step + 1] <= smallest) {
+                step++;
+            }
+            index[bits] = step;
+        }
+        return index;
+    }
+
+    private static double referenceBase(int amount) {
+        return Math.floor(10 * Math.log10(amount + 10.0));
+    }
+}
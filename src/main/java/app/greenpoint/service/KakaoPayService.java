@@ -2,23 +2,37 @@ package app.greenpoint.service;
 
 import app.greenpoint.dto.kakaopay.KakaoPayApproveRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayApproveResponseDto;
+import app.greenpoint.dto.kakaopay.KakaoPayOrderRequestDto;
+import app.greenpoint.dto.kakaopay.KakaoPayOrderResponseDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyResponseDto;
+import app.greenpoint.dto.KakaoPayResilienceStatsDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Getter
 public class KakaoPayService {
 
+    private static final String PAID = "SUCCESS_PAYMENT";
+    private static final String PAYMENT_ACTION = "PAYMENT";
+
     @Value("${kakaopay.secret-key}")
     private String secretKey;
 
@@ -31,6 +45,9 @@ public class KakaoPayService {
     @Value("${kakaopay.approve-url}")
     private String approveUrl;
 
+    @Value("${kakaopay.order-url}")
+    private String orderUrl;
+
     @Value("${kakaopay.redirect-host}")
     private String redirectHost;
 
@@ -43,13 +60,13 @@ public class KakaoPayService {
     @Value("${kakaopay.fail-path}")
     private String failPath;
 
-    private final RestTemplate restTemplate;
-
-    public KakaoPayReadyResponseDto readyPayment(KakaoPayReadyRequestDto requestDto) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "SECRET_KEY " + secretKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    private final WebClient kakaoPayWebClient;
+    private final Bulkhead kakaoPayBulkhead;
+    private final CircuitBreaker kakaoPayCircuitBreaker;
+    private final Retry kakaoPayApproveRetry;
+    private final Retry kakaoPayOrderRetry;
 
+    public Mono<KakaoPayReadyResponseDto> readyPaymentAsync(KakaoPayReadyRequestDto requestDto) {
         requestDto.setCid(cid);
 
         // Allow overriding redirect URLs from the request DTO
@@ -63,21 +80,100 @@ public class KakaoPayService {
             requestDto.setFail_url(redirectHost + failPath);
         }
 
+        return post(readyUrl, requestDto, KakaoPayReadyResponseDto.class)
+                .transformDeferred(BulkheadOperator.of(kakaoPayBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(kakaoPayCircuitBreaker));
+    }
+
+    public Mono<KakaoPayApproveResponseDto> approvePaymentAsync(KakaoPayApproveRequestDto requestDto) {
+        requestDto.setCid(cid);
+
+        // A repeated approve is rejected by the gateway, so only requests that never reached it are retried;
+        // callers resolve any other failure with findApproval
+        return post(approveUrl, requestDto, KakaoPayApproveResponseDto.class)
+                .transformDeferred(BulkheadOperator.of(kakaoPayBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(kakaoPayCircuitBreaker))
+                .transformDeferred(RetryOperator.of(kakaoPayApproveRetry));
+    }
+
+    public Mono<KakaoPayOrderResponseDto> getOrderAsync(String tid) {
+        KakaoPayOrderRequestDto requestDto = new KakaoPayOrderRequestDto();
+        requestDto.setCid(cid);
+        requestDto.setTid(tid);
 
-        HttpEntity<KakaoPayReadyRequestDto> request = new HttpEntity<>(requestDto, headers);
+        return post(orderUrl, requestDto, KakaoPayOrderResponseDto.class)
+                .transformDeferred(BulkheadOperator.of(kakaoPayBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(kakaoPayCircuitBreaker))
+                .transformDeferred(RetryOperator.of(kakaoPayOrderRetry));
+    }
 
-        return restTemplate.postForObject(readyUrl, request, KakaoPayReadyResponseDto.class);
+    /**
+     * Blocking variant for servlet callers; bounded by the client's connect and read timeouts.
+     */
+    public KakaoPayReadyResponseDto readyPayment(KakaoPayReadyRequestDto requestDto) {
+        return readyPaymentAsync(requestDto).block();
     }
 
+    /**
+     * Blocking variant for servlet callers; bounded by the client's connect and read timeouts.
+     */
     public KakaoPayApproveResponseDto approvePayment(KakaoPayApproveRequestDto requestDto) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "SECRET_KEY " + secretKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        return approvePaymentAsync(requestDto).block();
+    }
 
-        requestDto.setCid(cid);
+    /**
+     * Asks the gateway whether the payment was approved, for when the outcome of an approve call is unknown
+     * (timed out after sending, or rejected as a repeat). Returns the approval as {@link #approvePayment} would have.
+     */
+    public Optional<KakaoPayApproveResponseDto> findApproval(String tid) {
+        KakaoPayOrderResponseDto order = getOrderAsync(tid).block();
+        if (order == null || !PAID.equals(order.getStatus())) {
+            return Optional.empty();
+        }
+        KakaoPayApproveResponseDto approval = new KakaoPayApproveResponseDto();
+        approval.setTid(order.getTid());
+        approval.setCid(order.getCid());
+        approval.setPartner_order_id(order.getPartner_order_id());
+        approval.setPartner_user_id(order.getPartner_user_id());
+        approval.setPayment_method_type(order.getPayment_method_type());
+        approval.setItem_name(order.getItem_name());
+        approval.setQuantity(order.getQuantity());
+        approval.setCreated_at(order.getCreated_at());
+        approval.setApproved_at(order.getApproved_at());
+        if (order.getPayment_action_details() != null) {
+            order.getPayment_action_details().stream()
+                    .filter(detail -> PAYMENT_ACTION.equals(detail.getPayment_action_type()))
+                    .findFirst()
+                    .ifPresent(detail -> approval.setAid(detail.getAid()));
+        }
+        return Optional.of(approval);
+    }
 
-        HttpEntity<KakaoPayApproveRequestDto> request = new HttpEntity<>(requestDto, headers);
+    public KakaoPayResilienceStatsDto resilienceStats() {
+        CircuitBreaker.Metrics breaker = kakaoPayCircuitBreaker.getMetrics();
+        Bulkhead.Metrics bulkhead = kakaoPayBulkhead.getMetrics();
+        Retry.Metrics retry = kakaoPayApproveRetry.getMetrics();
+        return new KakaoPayResilienceStatsDto(
+                kakaoPayCircuitBreaker.getState().name(),
+                breaker.getFailureRate(),
+                breaker.getSlowCallRate(),
+                breaker.getNumberOfBufferedCalls(),
+                breaker.getNumberOfFailedCalls(),
+                breaker.getNumberOfSlowCalls(),
+                breaker.getNumberOfNotPermittedCalls(),
+                bulkhead.getAvailableConcurrentCalls(),
+                bulkhead.getMaxAllowedConcurrentCalls(),
+                retry.getNumberOfSuccessfulCallsWithRetryAttempt(),
+                retry.getNumberOfFailedCallsWithRetryAttempt());
+    }
 
-        return restTemplate.postForObject(approveUrl, request, KakaoPayApproveResponseDto.class);
+    private <T> Mono<T> post(String url, Object body, Class<T> responseType) {
+        return kakaoPayWebClient.post()
+                .uri(url)
+                .header(HttpHeaders.AUTHORIZATION, "SECRET_KEY " + secretKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(responseType);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.CategoryBreakdownDto;
+import app.greenpoint.dto.ReportResponseDto;
+import app.greenpoint.dto.TopMerchantDto;
+import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Running per-user totals for the current month, so the live monthly report is read from counters
+ * instead of being rebuilt from every transaction. A user's totals are seeded from the database on
+ * first read with the month's confirmed transactions; transactions are then folded in as they are
+ * confirmed. Contributions are keyed by transaction id, so a transaction seen both by the seed query
+ * and by its event is counted once. A PENDING transaction is not seeded and is counted when its
+ * confirmation event arrives. The set of users is bounded in size and drops idle users, who are
+ * simply reseeded on their next read.
+ */
+@Slf4j
+@Component
+public class LiveMonthAggregator {
+
+    private final TransactionRepository transactionRepository;
+    private final AppUserRepository appUserRepository;
+    private final long maxUsers;
+    private final Duration idleTtl;
+
+    private volatile MonthState state;
+
+    @Autowired
+    public LiveMonthAggregator(TransactionRepository transactionRepository, AppUserRepository appUserRepository,
+                               @Value("${report.live.max-users:100000}") long maxUsers,
+                               @Value("${report.live.idle-ttl:30m}") Duration idleTtl) {
+        this.transactionRepository = transactionRepository;
+        this.appUserRepository = appUserRepository;
+        this.maxUsers = maxUsers;
+        this.idleTtl = idleTtl;
+        this.state = newMonthState(YearMonth.now());
+    }
+
+    LiveMonthAggregator(TransactionRepository transactionRepository, AppUserRepository appUserRepository) {
+        this(transactionRepository, appUserRepository, 100_000, Duration.ofMinutes(30));
+    }
+
+    public boolean isCurrentMonth(String period) {
+        return currentState().month.toString().equals(period);
+    }
+
+    /**
+     * Returns the user's report for the current month.
+     */
+    public ReportResponseDto report(Long userId) {
+        MonthState current = currentState();
+        UserMonth userMonth = current.users.computeIfAbsent(userId, id -> new UserMonth());
+        if (!userMonth.seeded) {
+            // The placeholder is registered before querying, so transactions committing meanwhile are not lost
+            if (!appUserRepository.existsById(userId)) {
+                current.users.remove(userId, userMonth);
+                throw new UsernameNotFoundException("User not found with id: " + userId);
+            }
+            List<TxContribution> seed = transactionRepository.findContributions(userId, Transaction.Status.CONFIRMED,
+                            current.month.atDay(1).atStartOfDay(), current.month.atEndOfMonth().atTime(LocalTime.MAX))
+                    .stream()
+                    .map(v -> new TxContribution(v.getTxId(), v.getAmount(), v.getMerchantId(), v.getMerchantName(),
+                            v.getCategoryCode(), isGreen(v.getEsgTier()), v.getEsgScore(), v.getPoints()))
+                    .toList();
+            userMonth.seed(seed);
+            log.debug("Seeded live month aggregate for user {} with {} transactions", userId, seed.size());
+        }
+        return userMonth.toReport(current.month.toString());
+    }
+
+    @TransactionalEventListener
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        MonthState current = currentState();
+        if (!YearMonth.from(event.txTime()).equals(current.month)) {
+            return;
+        }
+        // Users nobody has asked about yet are picked up by the seed query on first read
+        UserMonth userMonth = current.users.get(event.userId());
+        if (userMonth != null) {
+            userMonth.add(new TxContribution(event.txId(), event.amount(), event.merchantId(), event.merchantName(),
+                    event.categoryCode(), isGreen(event.esgTier()), event.esgScore(), event.points()));
+        }
+    }
+
+    /**
+     * Drops the user's running totals so the next read reseeds them, e.g. after their past scores were rewritten.
+     */
+    public void evict(Long userId) {
+        currentState().users.remove(userId);
+    }
+
+    public int trackedUsers() {
+        return currentState().users.size();
+    }
+
+    private MonthState currentState() {
+        MonthState current = state;
+        YearMonth now = YearMonth.now();
+        if (!current.month.equals(now)) {
+            synchronized (this) {
+                if (!state.month.equals(now)) {
+                    log.info("Rolling live month aggregates over from {} to {}", state.month, now);
+                    state = newMonthState(now);
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private MonthState newMonthState(YearMonth month) {
+        Map<Long, UserMonth> users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .<Long, UserMonth>build()
+                .asMap();
+        return new MonthState(month, users);
+    }
+
+    private static boolean isGreen(Merchant.EsgTier tier) {
+        return tier == Merchant.EsgTier.A || tier == Merchant.EsgTier.B;
+    }
+
+    record TxContribution(long txId, int amount, Long merchantId, String merchantName, String categoryCode,
+                          boolean green, int esgScore, int points) {
+    }
+
+    private record MonthState(YearMonth month, Map<Long, UserMonth> users) {
+    }
+
+    /**
+     * Transaction ids are only needed to tell apart a transaction that was both seeded and delivered by an event
+     * committing around the seed query. Once the seed is older than {@link #DEDUPE_WINDOW_NANOS} no such event can
+     * still arrive, so the ids are dropped and later transactions are counted without being remembered.
+     */
+    static final class UserMonth {
+        static final long DEDUPE_WINDOW_NANOS = Duration.ofMinutes(5).toNanos();
+
+        private final LongSupplier nanoClock;
+        private Set<Long> txIds = new HashSet<>();
+        private final Map<String, long[]> categories = new HashMap<>(); // code -> {count, points}
+        private final Map<Long, MerchantTally> merchants = new HashMap<>();
+        private final Set<Long> greenMerchants = new HashSet<>();
+        private long totalSpend;
+        private long esgScoreTotal;
+        private volatile boolean seeded;
+        private long seededAtNanos;
+
+        UserMonth() {
+            this(System::nanoTime);
+        }
+
+        UserMonth(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+        }
+
+        synchronized void seed(Collection<TxContribution> contributions) {
+            contributions.forEach(this::add);
+            seeded = true;
+            seededAtNanos = nanoClock.getAsLong();
+        }
+
+        synchronized void add(TxContribution c) {
+            if (txIds != null && seeded && nanoClock.getAsLong() - seededAtNanos > DEDUPE_WINDOW_NANOS) {
+                txIds = null;
+            }
+            if (txIds != null && !txIds.add(c.txId())) {
+                return;
+            }
+            totalSpend += c.amount();
+            esgScoreTotal += c.esgScore();
+            if (c.merchantId() == null) {
+                return;
+            }
+            if (c.green()) {
+                greenMerchants.add(c.merchantId());
+            }
+            if (c.categoryCode() != null) {
+                long[] category = categories.computeIfAbsent(c.categoryCode(), k -> new long[2]);
+                category[0]++;
+                category[1] += c.points();
+            }
+            MerchantTally merchant = merchants.computeIfAbsent(c.merchantId(), k -> new MerchantTally());
+            merchant.name = c.merchantName();
+            merchant.visits++;
+            merchant.points += c.points();
+        }
+
+        synchronized ReportResponseDto toReport(String period) {
+            List<CategoryBreakdownDto> categoryBreakdown = categories.entrySet().stream()
+                    .map(e -> new CategoryBreakdownDto(e.getKey(), e.getValue()[0], (int) e.getValue()[1]))
+                    .sorted(Comparator.comparingInt(CategoryBreakdownDto::getPoints).reversed())
+                    .toList();
+            List<TopMerchantDto> topMerchants = merchants.values().stream()
+                    .map(m -> new TopMerchantDto(m.name, m.visits, (int) m.points))
+                    .sorted(Comparator.comparingInt(TopMerchantDto::getPoints).reversed())
+                    .limit(5)
+                    .toList();
+            return ReportResponseDto.builder()
+                    .period(period)
+                    .totalSpend((int) totalSpend)
+                    .greenMerchantsUsed(greenMerchants.size())
+                    .carbonSavedKg(esgScoreTotal * ReportService.CARBON_SAVED_MULTIPLIER)
+                    .categoryBreakdown(categoryBreakdown)
+                    .topMerchants(topMerchants)
+                    .esgScoreTotal((int) esgScoreTotal)
+                    .build();
+        }
+    }
+
+    private static final class MerchantTally {
+        private String name;
+        private long visits;
+        private long points;
+    }
+}
@@ -0,0 +1,166 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.repository.MerchantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index over merchant coordinates.
+ * Merchants are bucketed into fixed-size lat/lng cells so a nearest-merchant lookup
+ * only inspects the cells overlapping the search radius instead of scanning the merchant table.
+ * The index also keeps a copy of each merchant's columns, so a matched merchant can be used without reading it back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MerchantGeoIndex {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+    private static final double METERS_PER_DEGREE_LAT = 111_320d;
+    private static final double CELL_SIZE_DEG = 0.01; // ~1.1km of latitude per cell
+    private static final long CELL_COLUMNS = 100_000L;
+    private static final int MAX_CELL_SPAN = 50;
+
+    private final MerchantRepository merchantRepository;
+
+    private final Map<Long, GeoEntry[]> cells = new ConcurrentHashMap<>();
+    private final Map<Long, GeoEntry> entriesById = new ConcurrentHashMap<>();
+    private final Map<Long, MerchantSnapshot> merchantsById = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Merchant> merchants = merchantRepository.findAll();
+        synchronized (this) {
+            cells.clear();
+            entriesById.clear();
+            merchantsById.clear();
+            merchants.forEach(this::put);
+        }
+        log.info("Loaded {} merchants into the geo index", entriesById.size());
+    }
+
+    public synchronized void put(Merchant merchant) {
+        if (merchant.getId() == null || merchant.getLat() == null || merchant.getLng() == null) {
+            return;
+        }
+        put(merchant.getId(), merchant.getLat().doubleValue(), merchant.getLng().doubleValue());
+        merchantsById.put(merchant.getId(), new MerchantSnapshot(merchant.getId(), merchant.getName(),
+                merchant.getCategoryCode(), merchant.getLat(), merchant.getLng(), merchant.getRegion(), merchant.getEsgTier()));
+    }
+
+    public synchronized void put(long merchantId, double lat, double lng) {
+        remove(merchantId);
+        GeoEntry entry = new GeoEntry(merchantId, lat, lng);
+        cells.merge(cellKey(lat, lng), new GeoEntry[]{entry}, (existing, added) -> {
+            GeoEntry[] merged = Arrays.copyOf(existing, existing.length + 1);
+            merged[existing.length] = entry;
+            return merged;
+        });
+        entriesById.put(merchantId, entry);
+    }
+
+    public synchronized void remove(long merchantId) {
+        merchantsById.remove(merchantId);
+        GeoEntry previous = entriesById.remove(merchantId);
+        if (previous == null) {
+            return;
+        }
+        cells.computeIfPresent(cellKey(previous.lat(), previous.lng()), (key, existing) -> {
+            GeoEntry[] remaining = Arrays.stream(existing)
+                    .filter(e -> e.merchantId() != merchantId)
+                    .toArray(GeoEntry[]::new);
+            return remaining.length == 0 ? null : remaining;
+        });
+    }
+
+    /**
+     * Returns a detached copy of the indexed merchant; each call returns a new instance, so callers may keep it.
+     * @return empty if the merchant is not indexed (or was indexed by coordinates only)
+     */
+    public Optional<Merchant> find(long merchantId) {
+        MerchantSnapshot snapshot = merchantsById.get(merchantId);
+        return snapshot == null ? Optional.empty() : Optional.of(snapshot.toMerchant());
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    /**
+     * Finds the merchant closest to the given point within {@code radiusMeters}.
+     * @return the merchant id, or empty if no merchant lies within the radius.
+     */
+    public Optional<Long> findNearest(double lat, double lng, double radiusMeters) {
+        int latSpan = cellSpan(radiusMeters / METERS_PER_DEGREE_LAT);
+        double metersPerDegreeLng = METERS_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        int lngSpan = cellSpan(radiusMeters / metersPerDegreeLng);
+
+        long centerRow = row(lat);
+        long centerCol = col(lng);
+        long bestId = -1;
+        double bestDistance = radiusMeters;
+
+        for (long r = centerRow - latSpan; r <= centerRow + latSpan; r++) {
+            for (long c = centerCol - lngSpan; c <= centerCol + lngSpan; c++) {
+                GeoEntry[] bucket = cells.get(r * CELL_COLUMNS + c);
+                if (bucket == null) {
+                    continue;
+                }
+                for (GeoEntry entry : bucket) {
+                    double distance = distanceMeters(lat, lng, entry.lat(), entry.lng());
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        bestId = entry.merchantId();
+                    }
+                }
+            }
+        }
+        return bestId < 0 ? Optional.empty() : Optional.of(bestId);
+    }
+
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static int cellSpan(double radiusDeg) {
+        return (int) Math.min(MAX_CELL_SPAN, Math.ceil(radiusDeg / CELL_SIZE_DEG));
+    }
+
+    private static long cellKey(double lat, double lng) {
+        return row(lat) * CELL_COLUMNS + col(lng);
+    }
+
+    private static long row(double lat) {
+        return (long) Math.floor((lat + 90.0) / CELL_SIZE_DEG);
+    }
+
+    private static long col(double lng) {
+        return (long) Math.floor((lng + 180.0) / CELL_SIZE_DEG);
+    }
+
+    private record GeoEntry(long merchantId, double lat, double lng) {
+    }
+
+    private record MerchantSnapshot(long id, String name, String categoryCode, BigDecimal lat, BigDecimal lng,
+                                    String region, Merchant.EsgTier esgTier) {
+
+        Merchant toMerchant() {
+            return new Merchant(id, name, categoryCode, lat, lng, region, esgTier);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.repository.AppUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process leaderboard ordered by points (descending), ties broken by user id.
+ * Backed by a treap whose nodes track subtree sizes, so updates, rank lookups and
+ * locating the start of a page are all O(log N).
+ * Committed point changes are applied as deltas so concurrent awards commute regardless of
+ * the order their commit callbacks run in; a periodic reload reconciles with the database.
+ * Changes that arrive while a reload reads the table are also buffered and replayed onto the new tree
+ * before it is swapped in (see {@link #replay}), so the reload neither loses nor double-counts them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PointLeaderboard {
+
+    private final AppUserRepository appUserRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Node> nodesByUser = new HashMap<>();
+    private Node root;
+    private List<PendingDelta> pendingDuringLoad; // non-null while load() is reading; guarded by lock
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ranking.leaderboard.reconcile-cron:0 30 * * * *}")
+    public synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Build the new tree without blocking readers, then swap it in
+        Map<Long, Node> newNodes = new HashMap<>();
+        Node newRoot = null;
+        List<AppUserRepository.PointsView> users;
+        try {
+            users = appUserRepository.findAllProjectedBy();
+            for (AppUserRepository.PointsView user : users) {
+                Node node = new Node(user.getId(), user.getNickname(), user.getPoints());
+                newRoot = insert(newRoot, node);
+                newNodes.put(node.userId, node);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            nodesByUser = newNodes;
+            replayed = replay(pendingDuringLoad);
+            pendingDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} users into the point leaderboard ({} changes replayed)", users.size(), replayed);
+    }
+
+    @TransactionalEventListener
+    public void onUserPointsChanged(UserPointsChangedEvent event) {
+        applyDelta(event.userId(), event.nickname(), event.delta(), event.points());
+    }
+
+    /**
+     * Adds {@code delta} to the user's points. Users not yet on the board are inserted with
+     * {@code currentPoints}, the balance observed when the change was made.
+     */
+    public void applyDelta(long userId, String nickname, int delta, int currentPoints) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringLoad != null) {
+                pendingDuringLoad.add(new PendingDelta(userId, nickname, delta, currentPoints));
+            }
+            addDelta(userId, nickname, delta, currentPoints);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDelta(long userId, String nickname, int delta, int currentPoints) {
+        Node existing = nodesByUser.get(userId);
+        int points = (existing != null) ? existing.points + delta : currentPoints;
+        put(userId, nickname, points);
+    }
+
+    /**
+     * Applies the changes buffered during a reload to the freshly loaded tree. A change whose commit the reload
+     * already read must not be applied again, and the buffer cannot tell those apart by arrival order. Each change
+     * carries the balance it produced, though, and changes to one user commit one after another under the row
+     * lock, so they form a chain {@code points - delta -> points}. Starting from the loaded balance, the chain is
+     * followed for as long as some buffered change continues it; changes left over were already in the snapshot.
+     * Users that were not in the snapshot at all only have changes made after the read and take them all.
+     * @return the number of changes applied
+     */
+    private int replay(List<PendingDelta> pending) {
+        Map<Long, List<PendingDelta>> byUser = new LinkedHashMap<>();
+        for (PendingDelta change : pending) {
+            if (change.delta() != 0 || !nodesByUser.containsKey(change.userId())) {
+                byUser.computeIfAbsent(change.userId(), k -> new ArrayList<>()).add(change);
+            }
+        }
+        int applied = 0;
+        for (Map.Entry<Long, List<PendingDelta>> entry : byUser.entrySet()) {
+            long userId = entry.getKey();
+            List<PendingDelta> changes = entry.getValue();
+            Node loaded = nodesByUser.get(userId);
+            if (loaded == null) {
+                for (PendingDelta change : changes) {
+                    addDelta(userId, change.nickname(), change.delta(), change.points());
+                }
+                applied += changes.size();
+                continue;
+            }
+            int points = loaded.points;
+            String nickname = loaded.nickname;
+            for (boolean advanced = true; advanced; ) {
+                advanced = false;
+                for (Iterator<PendingDelta> it = changes.iterator(); it.hasNext(); ) {
+                    PendingDelta change = it.next();
+                    if (change.points() - change.delta() == points) {
+                        points = change.points();
+                        nickname = change.nickname();
+                        it.remove();
+                        applied++;
+                        advanced = true;
+                        break;
+                    }
+                }
+            }
+            put(userId, nickname, points);
+        }
+        return applied;
+    }
+
+    public void update(long userId, String nickname, int points) {
+        lock.writeLock().lock();
+        try {
+            put(userId, nickname, points);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Node existing = nodesByUser.remove(userId);
+            if (existing != null) {
+                root = delete(root, existing.points, userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entries starting at the zero-based position {@code offset}, each with its
+     * competition rank as in {@link #standingOf}: users with equal points share a rank, also across pages.
+     */
+    public List<Entry> page(int offset, int limit) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        lock.readLock().lock();
+        try {
+            if (offset < 0 || limit <= 0 || offset >= size(root)) {
+                return result;
+            }
+            Deque<Node> stack = new ArrayDeque<>();
+            Node node = root;
+            int skip = offset;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (skip < leftSize) {
+                    stack.push(node);
+                    node = node.left;
+                } else if (skip == leftSize) {
+                    stack.push(node);
+                    break;
+                } else {
+                    skip -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            long rank = 0;
+            while (!stack.isEmpty() && result.size() < limit) {
+                Node current = stack.pop();
+                if (result.isEmpty()) {
+                    rank = countAbove(root, current.points) + 1;
+                } else if (current.points != result.get(result.size() - 1).points()) {
+                    rank = offset + result.size() + 1;
+                }
+                result.add(current.toEntry(rank));
+                for (Node n = current.right; n != null; n = n.left) {
+                    stack.push(n);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of users with strictly more than {@code points} points.
+     */
+    public long countAbove(int points) {
+        lock.readLock().lock();
+        try {
+            return countAbove(root, points);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the user's competition rank (users with equal points share a rank) together with
+     * their points and the board size, read atomically. Empty if the user is not on the board.
+     */
+    public Optional<Standing> standingOf(long userId) {
+        lock.readLock().lock();
+        try {
+            Node node = nodesByUser.get(userId);
+            if (node == null) {
+                return Optional.empty();
+            }
+            int total = size(root);
+            long atOrAbove = countAtOrAbove(root, node.points);
+            return Optional.of(new Standing(countAbove(root, node.points) + 1, node.points, total, total - atOrAbove));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the standing a user with {@code points} would have if they were on the board, counting them in the
+     * total, without adding them. For users the board is missing.
+     */
+    public Standing standingFor(int points) {
+        lock.readLock().lock();
+        try {
+            int total = size(root) + 1;
+            return new Standing(countAbove(root, points) + 1, points, total, total - 1 - countAtOrAbove(root, points));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the one-based position of the user in the leaderboard, or -1 if the user is unknown.
+     */
+    public long positionOf(long userId) {
+        lock.readLock().lock();
+        try {
+            Node target = nodesByUser.get(userId);
+            if (target == null) {
+                return -1;
+            }
+            long position = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(target.points, userId, node);
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    position += size(node.left) + 1;
+                    if (cmp == 0) {
+                        break;
+                    }
+                    node = node.right;
+                }
+            }
+            return position;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long userId, String nickname, int points) {
+        Node existing = nodesByUser.get(userId);
+        if (existing != null) {
+            if (existing.points == points) {
+                existing.nickname = nickname;
+                return;
+            }
+            root = delete(root, existing.points, userId);
+        }
+        Node node = new Node(userId, nickname, points);
+        root = insert(root, node);
+        nodesByUser.put(userId, node);
+    }
+
+    private static long countAbove(Node root, int points) {
+        long count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.points > points) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private static long countAtOrAbove(Node root, int points) {
+        long count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.points >= points) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (compare(node.points, node.userId, root) < 0) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.recount();
+        return root;
+    }
+
+    private static Node delete(Node root, int points, long userId) {
+        if (root == null) {
+            return null;
+        }
+        int cmp = compare(points, userId, root);
+        if (cmp == 0) {
+            return merge(root.left, root.right);
+        }
+        if (cmp < 0) {
+            root.left = delete(root.left, points, userId);
+        } else {
+            root.right = delete(root.right, points, userId);
+        }
+        root.recount();
+        return root;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.recount();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.recount();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.recount();
+        pivot.recount();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.recount();
+        pivot.recount();
+        return pivot;
+    }
+
+    /**
+     * Orders by points descending, then by user id ascending.
+     */
+    private static int compare(int points, long userId, Node node) {
+        if (points != node.points) {
+            return points > node.points ? -1 : 1;
+        }
+        return Long.compare(userId, node.userId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    public record Entry(long userId, String nickname, int points, long rank) {
+        public int level() {
+            return AppUser.levelFor(points);
+        }
+    }
+
+    /**
+     * @param usersBelow number of users with strictly fewer points
+     */
+    public record Standing(long rank, int points, int totalUsers, long usersBelow) {
+        /**
+         * Percentage of the other users with strictly fewer points (0 for last place, 100 for a sole first place).
+         * Users tied on points do not count as below each other.
+         */
+        public double percentile() {
+            if (totalUsers <= 1) {
+                return 100.0;
+            }
+            return usersBelow * 100.0 / (totalUsers - 1);
+        }
+    }
+
+    private record PendingDelta(long userId, String nickname, int delta, int points) {
+    }
+
+    private static final class Node {
+        private final long userId;
+        private final int points;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private String nickname;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long userId, String nickname, int points) {
+            this.userId = userId;
+            this.nickname = nickname;
+            this.points = points;
+        }
+
+        private void recount() {
+            size = 1 + PointLeaderboard.size(left) + PointLeaderboard.size(right);
+        }
+
+        private Entry toEntry(long rank) {
+            return new Entry(userId, nickname, points, rank);
+        }
+    }
+}
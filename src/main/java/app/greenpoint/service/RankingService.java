@@ -1,41 +1,83 @@
 package app.greenpoint.service;
 
 import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.RankingSnapshot;
 import app.greenpoint.dto.MyRankDto;
 import app.greenpoint.dto.RankingItemDto;
 import app.greenpoint.dto.RankingResponseDto;
 import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.RankingSnapshotRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RankingService {
 
+    public static final String ALL_REGIONS = "ALL";
+    static final int MAX_SNAPSHOT_BYTES = 65_535; // rank_json is a TEXT column
+
     private final AppUserRepository appUserRepository;
+    private final PointLeaderboard pointLeaderboard;
+    private final RewardPointRepository rewardPointRepository;
+    private final RankingSnapshotRepository rankingSnapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional(readOnly = true)
-    public RankingResponseDto getRanking() {
-        List<AppUser> allUsers = appUserRepository.findAll();
-
-        // Sort users by points in descending order
-        allUsers.sort(Comparator.comparingInt(AppUser::getPoints).reversed());
-
-        // Create DTOs with ranks
-        List<RankingItemDto> rankings = IntStream.range(0, allUsers.size())
-                .mapToObj(i -> {
-                    AppUser user = allUsers.get(i);
-                    return new RankingItemDto(i + 1, user.getNickname(), user.getLevel(), user.getPoints());
-                })
+    @Value("${ranking.snapshot.size:500}")
+    private int snapshotSize;
+
+    @Value("${ranking.snapshot.live-ttl:60s}")
+    private Duration liveTtl;
+
+    private Cache<YearMonth, Map<String, List<SnapshotEntry>>> liveBoards;
+    private final Map<YearMonth, CompletableFuture<Integer>> inFlightRebuilds = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initLiveBoards() {
+        liveBoards = Caffeine.newBuilder()
+                .maximumSize(2) // The current month, plus the previous one around the month boundary
+                .expireAfterWrite(liveTtl)
+                .build();
+    }
+
+    public RankingResponseDto getRanking(int page, int size) {
+        int offset = page * size;
+        // Served from the in-memory leaderboard, already ordered by points
+        List<PointLeaderboard.Entry> entries = pointLeaderboard.page(offset, size);
+
+        // Create DTOs with competition ranks (tied users share one), matching getMyRank
+        List<RankingItemDto> rankings = entries.stream()
+                .map(entry -> new RankingItemDto((int) entry.rank(), entry.nickname(), entry.level(), entry.points()))
                 .collect(Collectors.toList());
 
         return new RankingResponseDto(rankings);
@@ -46,8 +88,205 @@ public class RankingService {
         AppUser currentUser = appUserRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
-        long rank = appUserRepository.countByPointsGreaterThan(currentUser.getPoints()) + 1;
+        // Rank comes from the in-memory leaderboard instead of a COUNT over app_user
+        PointLeaderboard.Standing standing = pointLeaderboard.standingOf(currentUser.getId())
+                .orElseGet(() -> {
+                    // Every user should be on the board; rank by the stored balance rather than patching it from a read
+                    log.warn("User {} is missing from the point leaderboard; ranking by their stored balance", currentUser.getId());
+                    return pointLeaderboard.standingFor(currentUser.getPoints());
+                });
+
+        return new MyRankDto(
+                standing.rank(),
+                currentUser.getNickname(),
+                AppUser.levelFor(standing.points()),
+                standing.points(),
+                standing.totalUsers(),
+                standing.percentile()
+        );
+    }
+
+    /**
+     * Returns a page of the monthly leaderboard (points earned on transactions in {@code period}) for one region
+     * or {@link #ALL_REGIONS}. Closed months are read from their stored snapshots, built on first read if the
+     * month has none; the current month is aggregated at most once per {@code ranking.snapshot.live-ttl} and, like a
+     * snapshot, holds the top {@code ranking.snapshot.size} users.
+     * @throws IllegalArgumentException for a future month
+     */
+    public RankingResponseDto getMonthlyRanking(YearMonth period, String region, int page, int size) {
+        YearMonth currentMonth = YearMonth.now();
+        if (period.isAfter(currentMonth)) {
+            throw new IllegalArgumentException("Ranking period is in the future: " + period);
+        }
+        int offset = page * size;
+        List<SnapshotEntry> entries = period.equals(currentMonth)
+                ? liveBoards.get(period, p -> buildBoards(p, snapshotSize)).getOrDefault(region, List.of())
+                : snapshotEntries(period, region);
+        return new RankingResponseDto(rank(entries, offset, size));
+    }
+
+    /**
+     * Replaces the period's snapshots with freshly computed ones: the top {@code ranking.snapshot.size} users
+     * overall and per region, from a single pass over the users' monthly point totals. Only one rebuild of a period
+     * runs at a time; a call arriving while one is in progress waits for it and returns its result.
+     * @return the number of snapshots written
+     */
+    public int rebuildSnapshots(YearMonth period) {
+        return rebuildOnce(period, false);
+    }
+
+    /**
+     * Runs the rebuild unless one for the period is already in flight, in which case it waits for and shares that
+     * one's outcome. With {@code onlyIfMissing}, the period is re-checked first, so readers that found it missing
+     * just after another rebuild finished do not run a second one.
+     */
+    private int rebuildOnce(YearMonth period, boolean onlyIfMissing) {
+        CompletableFuture<Integer> rebuild = new CompletableFuture<>();
+        CompletableFuture<Integer> inFlight = inFlightRebuilds.putIfAbsent(period, rebuild);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+            }
+        }
+        try {
+            int written = 0;
+            if (!onlyIfMissing || !rankingSnapshotRepository.existsByPeriodYm(period.toString())) {
+                if (onlyIfMissing) {
+                    log.info("No ranking snapshots for {}; building them now", period);
+                }
+                written = writeSnapshots(period);
+            }
+            rebuild.complete(written);
+            return written;
+        } catch (RuntimeException e) {
+            rebuild.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRebuilds.remove(period, rebuild);
+        }
+    }
+
+    private int writeSnapshots(YearMonth period) {
+        long startNanos = System.nanoTime();
+        Map<String, List<SnapshotEntry>> boards = buildBoards(period, snapshotSize);
+        List<RankingSnapshot> snapshots = boards.entrySet().stream()
+                .map(e -> RankingSnapshot.builder()
+                        .region(e.getKey())
+                        .periodYm(period.toString())
+                        .rankJson(encode(objectMapper, e.getValue()))
+                        .build())
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            rankingSnapshotRepository.deleteByPeriodYmIn(List.of(period.toString()));
+            rankingSnapshotRepository.saveAll(snapshots);
+        });
+        log.info("Rebuilt {} ranking snapshots for {} ({} ranked users) in {} ms", snapshots.size(), period,
+                boards.get(ALL_REGIONS).size(), (System.nanoTime() - startNanos) / 1_000_000);
+        return snapshots.size();
+    }
+
+    private List<SnapshotEntry> snapshotEntries(YearMonth period, String region) {
+        Optional<RankingSnapshot> snapshot = rankingSnapshotRepository.findFirstByRegionAndPeriodYmOrderByIdDesc(region, period.toString());
+        if (snapshot.isEmpty() && !rankingSnapshotRepository.existsByPeriodYm(period.toString())) {
+            rebuildOnce(period, true);
+            snapshot = rankingSnapshotRepository.findFirstByRegionAndPeriodYmOrderByIdDesc(region, period.toString());
+        }
+        return snapshot.map(s -> decode(objectMapper, s.getRankJson())).orElse(List.of());
+    }
+
+    private Map<String, List<SnapshotEntry>> buildBoards(YearMonth period, int limit) {
+        return transactionTemplate.execute(status -> {
+            try (Stream<RewardPointRepository.MonthlyPointsView> rows = rewardPointRepository.streamPointsByUser(
+                    period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay())) {
+                return collectBoards(rows.iterator(), limit);
+            }
+        });
+    }
+
+    /**
+     * Splits rows ordered by points (highest first) into the overall board and one board per region, keeping the
+     * first {@code limit} of each. Only the boards are held in memory, not the rows.
+     */
+    static Map<String, List<SnapshotEntry>> collectBoards(Iterator<RewardPointRepository.MonthlyPointsView> rows, int limit) {
+        Map<String, List<SnapshotEntry>> boards = new LinkedHashMap<>();
+        List<SnapshotEntry> all = new ArrayList<>();
+        boards.put(ALL_REGIONS, all);
+        while (rows.hasNext()) {
+            RewardPointRepository.MonthlyPointsView row = rows.next();
+            SnapshotEntry entry = new SnapshotEntry(row.getUserId(), row.getNickname(), row.getLevel(), row.getPoints());
+            if (all.size() < limit) {
+                all.add(entry);
+            }
+            if (row.getRegion() != null) {
+                List<SnapshotEntry> regional = boards.computeIfAbsent(row.getRegion(), k -> new ArrayList<>());
+                if (regional.size() < limit) {
+                    regional.add(entry);
+                }
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * Assigns competition ranks (equal points share a rank) and returns the requested page.
+     */
+    static List<RankingItemDto> rank(List<SnapshotEntry> entries, int offset, int size) {
+        List<RankingItemDto> page = new ArrayList<>(Math.max(0, Math.min(size, entries.size() - offset)));
+        int rank = 0;
+        for (int i = 0; i < entries.size() && i < offset + size; i++) {
+            SnapshotEntry entry = entries.get(i);
+            if (i == 0 || entry.points() != entries.get(i - 1).points()) {
+                rank = i + 1;
+            }
+            if (i >= offset) {
+                page.add(new RankingItemDto(rank, entry.nickname(), entry.level(), (int) entry.points()));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Compact JSON: one {@code [userId, nickname, level, points]} array per user, in rank order. Trailing entries
+     * are dropped if the result would not fit the column.
+     */
+    static String encode(ObjectMapper objectMapper, List<SnapshotEntry> entries) {
+        List<SnapshotEntry> kept = entries;
+        while (true) {
+            ArrayNode array = objectMapper.createArrayNode();
+            for (SnapshotEntry entry : kept) {
+                array.addArray().add(entry.userId()).add(entry.nickname()).add(entry.level()).add(entry.points());
+            }
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(array);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode ranking snapshot", e);
+            }
+            int bytes = json.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes <= MAX_SNAPSHOT_BYTES) {
+                return json;
+            }
+            int keep = Math.max(0, (int) ((long) kept.size() * MAX_SNAPSHOT_BYTES / bytes) - 1);
+            log.warn("Ranking snapshot of {} entries is {} bytes; keeping the top {}", kept.size(), bytes, keep);
+            kept = kept.subList(0, keep);
+        }
+    }
+
+    static List<SnapshotEntry> decode(ObjectMapper objectMapper, String json) {
+        try {
+            JsonNode array = objectMapper.readTree(json);
+            List<SnapshotEntry> entries = new ArrayList<>(array.size());
+            for (JsonNode node : array) {
+                entries.add(new SnapshotEntry(node.get(0).asLong(), node.get(1).asText(), node.get(2).asInt(), node.get(3).asLong()));
+            }
+            return entries;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not decode ranking snapshot", e);
+        }
+    }
 
-        return new MyRankDto(rank, currentUser.getNickname(), currentUser.getLevel(), currentUser.getPoints());
+    record SnapshotEntry(long userId, String nickname, int level, long points) {
     }
 }
@@ -0,0 +1,122 @@
+package app.greenpoint.service;
+
+import app.greenpoint.dto.ReportCacheStatsDto;
+import app.greenpoint.dto.ReportResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * In-process L1 in front of the report_cache table, holding deserialized reports keyed by user and period.
+ * Bounded by an estimated weight; reports for the current day/month expire after a short TTL and are evicted
+ * when the user's points change, while closed periods live much longer.
+ */
+@Component
+public class ReportL1Cache {
+
+    private static final int BASE_WEIGHT = 256;
+    private static final int ROW_WEIGHT = 96;
+
+    private final Cache<Key, ReportResponseDto> cache;
+    private final Clock clock;
+
+    @Autowired
+    public ReportL1Cache(@Value("${report.l1.max-weight:50000000}") long maxWeight,
+                         @Value("${report.l1.live-ttl:60s}") Duration liveTtl,
+                         @Value("${report.l1.closed-ttl:6h}") Duration closedTtl) {
+        this(maxWeight, liveTtl, closedTtl, Clock.systemDefaultZone());
+    }
+
+    ReportL1Cache(long maxWeight, Duration liveTtl, Duration closedTtl, Clock clock) {
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, ReportResponseDto report) -> weigh(report))
+                .expireAfter(new Expiry<Key, ReportResponseDto>() {
+                    @Override
+                    public long expireAfterCreate(Key key, ReportResponseDto report, long currentTime) {
+                        return (isLive(key.period()) ? liveTtl : closedTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, ReportResponseDto report, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, report, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, ReportResponseDto report, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public ReportResponseDto get(Long userId, String period) {
+        return cache.getIfPresent(new Key(userId, period));
+    }
+
+    public void put(Long userId, String period, ReportResponseDto report) {
+        cache.put(new Key(userId, period), report);
+    }
+
+    public void invalidate(Long userId, String period) {
+        cache.invalidate(new Key(userId, period));
+    }
+
+    public void invalidatePeriod(String period) {
+        cache.asMap().keySet().removeIf(key -> key.period().equals(period));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * A committed transaction changes the user's live reports; drop them so the next read rebuilds.
+     */
+    @TransactionalEventListener
+    public void onUserPointsChanged(UserPointsChangedEvent event) {
+        invalidate(event.userId(), YearMonth.now(clock).toString());
+        invalidate(event.userId(), LocalDate.now(clock).toString());
+    }
+
+    public ReportCacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new ReportCacheStatsDto(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), cache.estimatedSize(),
+                cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+    }
+
+    /**
+     * Periods at or after the current month (YYYY-MM) or day (YYYY-MM-DD) can still change.
+     */
+    boolean isLive(String period) {
+        if (period.length() == 7) {
+            return period.compareTo(YearMonth.now(clock).toString()) >= 0;
+        }
+        if (period.length() == 10) {
+            return period.compareTo(LocalDate.now(clock).toString()) >= 0;
+        }
+        return false;
+    }
+
+    private static int weigh(ReportResponseDto report) {
+        int rows = (report.getCategoryBreakdown() != null ? report.getCategoryBreakdown().size() : 0)
+                + (report.getTopMerchants() != null ? report.getTopMerchants().size() : 0);
+        return BASE_WEIGHT + rows * ROW_WEIGHT;
+    }
+
+    private record Key(Long userId, String period) {
+    }
+}
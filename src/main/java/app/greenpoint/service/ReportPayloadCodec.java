@@ -0,0 +1,131 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.ReportCache;
+import app.greenpoint.dto.ReportResponseDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of cached reports stored in report_cache.payload_bin.
+ * Layout: one version byte, one flags byte, then the Smile-encoded report, deflated when that is smaller.
+ * Rows written before the binary column existed are still read from payload_json.
+ */
+@Component
+public class ReportPayloadCodec {
+
+    static final byte FORMAT_VERSION = 1;
+    static final byte FLAG_DEFLATE = 0x01;
+    private static final int HEADER_SIZE = 2;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final int compressThreshold;
+
+    public ReportPayloadCodec(ObjectMapper objectMapper,
+                              @Value("${report.codec.compress-threshold:512}") int compressThreshold) {
+        this.jsonMapper = objectMapper;
+        // Same registered modules and leniency as the application mapper, Smile on the wire
+        this.smileMapper = SmileMapper.builder()
+                .findAndAddModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.compressThreshold = compressThreshold;
+    }
+
+    public byte[] encode(ReportResponseDto report) {
+        byte[] body;
+        try {
+            body = smileMapper.writeValueAsBytes(report);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode report " + report.getPeriod(), e);
+        }
+        byte flags = 0;
+        if (body.length >= compressThreshold) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                body = deflated;
+                flags |= FLAG_DEFLATE;
+            }
+        }
+        byte[] encoded = new byte[HEADER_SIZE + body.length];
+        encoded[0] = FORMAT_VERSION;
+        encoded[1] = flags;
+        System.arraycopy(body, 0, encoded, HEADER_SIZE, body.length);
+        return encoded;
+    }
+
+    public ReportResponseDto decode(byte[] encoded) {
+        if (encoded.length < HEADER_SIZE || encoded[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported report payload version: " + (encoded.length > 0 ? encoded[0] : "empty"));
+        }
+        try {
+            if ((encoded[1] & FLAG_DEFLATE) != 0) {
+                return smileMapper.readValue(inflate(encoded, HEADER_SIZE), ReportResponseDto.class);
+            }
+            return smileMapper.readValue(encoded, HEADER_SIZE, encoded.length - HEADER_SIZE, ReportResponseDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode report payload", e);
+        }
+    }
+
+    /**
+     * Decodes a cached row, preferring the binary column and falling back to legacy JSON.
+     */
+    public ReportResponseDto decode(ReportCache cache) {
+        if (cache.getPayloadBin() != null) {
+            return decode(cache.getPayloadBin());
+        }
+        try {
+            return jsonMapper.readValue(cache.getPayloadJson(), ReportResponseDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode legacy report payload", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated report payload");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt report payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
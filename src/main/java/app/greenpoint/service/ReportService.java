@@ -6,24 +6,35 @@ import app.greenpoint.dto.ReportResponseDto;
 import app.greenpoint.dto.TopMerchantDto;
 import app.greenpoint.repository.AppUserRepository;
 import app.greenpoint.repository.ReportCacheRepository;
+import app.greenpoint.repository.ReportCacheRepositoryCustom;
 import app.greenpoint.repository.RewardPointRepository;
 import app.greenpoint.repository.TransactionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,13 +47,51 @@ public class ReportService {
     private final TransactionRepository transactionRepository;
     private final RewardPointRepository rewardPointRepository;
     private final ReportCacheRepository reportCacheRepository;
-    private final ObjectMapper objectMapper;
+    private final ReportPayloadCodec reportPayloadCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportL1Cache reportL1Cache;
+    private final LiveMonthAggregator liveMonthAggregator;
 
-    private static final double CARBON_SAVED_MULTIPLIER = 0.05;
+    @Value("${report.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${report.batch.parallelism:4}")
+    private int batchParallelism;
+
+    static final double CARBON_SAVED_MULTIPLIER = 0.05;
+    private static final Set<Merchant.EsgTier> GREEN_TIERS = EnumSet.of(Merchant.EsgTier.A, Merchant.EsgTier.B);
     private static final DateTimeFormatter DAILY_PERIOD_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE; // YYYY-MM-DD
 
-    @Transactional
+    /**
+     * Serves from the in-process L1 when possible (no SQL, no JSON parsing); otherwise falls back to the
+     * report_cache table and finally builds the report, filling both tiers on the way out.
+     * The current month is answered from the live running aggregate and never cached.
+     */
     public ReportResponseDto getMonthlyReport(Long userId, String period) {
+        if (liveMonthAggregator.isCurrentMonth(period)) {
+            return liveMonthAggregator.report(userId);
+        }
+        ReportResponseDto l1Hit = reportL1Cache.get(userId, period);
+        if (l1Hit != null) {
+            return l1Hit;
+        }
+        ReportResponseDto report = transactionTemplate.execute(status -> loadMonthlyReport(userId, period));
+        reportL1Cache.put(userId, period, report);
+        return report;
+    }
+
+    public ReportResponseDto getDailyReport(Long userId, LocalDate day) {
+        String period = day.format(DAILY_PERIOD_FORMAT);
+        ReportResponseDto l1Hit = reportL1Cache.get(userId, period);
+        if (l1Hit != null) {
+            return l1Hit;
+        }
+        ReportResponseDto report = transactionTemplate.execute(status -> loadDailyReport(userId, day));
+        reportL1Cache.put(userId, period, report);
+        return report;
+    }
+
+    private ReportResponseDto loadMonthlyReport(Long userId, String period) {
         // 1. Find user
         AppUser user = appUserRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
@@ -52,7 +101,7 @@ public class ReportService {
         if (cachedReportOpt.isPresent()) {
             try {
                 log.debug("Returning cached monthly report for user {} and period {}", userId, period);
-                return objectMapper.readValue(cachedReportOpt.get().getPayloadJson(), ReportResponseDto.class);
+                return reportPayloadCodec.decode(cachedReportOpt.get());
             } catch (Exception e) {
                 log.error("Error deserializing cached report for user {} and period {}", userId, period, e);
                 // If deserialization fails, proceed to generate a new one
@@ -66,13 +115,13 @@ public class ReportService {
         return newReport;
     }
 
-    @Transactional
-    public ReportResponseDto getDailyReport(Long userId, LocalDate day) {
+    private ReportResponseDto loadDailyReport(Long userId, LocalDate day) {
         AppUser user = appUserRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
         String period = day.format(DAILY_PERIOD_FORMAT);
 
         // For the current day, always generate a live report to reflect recent transactions
+        // (the L1 keeps it only briefly and drops it when the user's points change)
         if (day.isEqual(LocalDate.now())) {
             log.debug("Generating live daily report for user {} for today's date {}", userId, period);
             return buildDailyReport(user, day);
@@ -83,7 +132,7 @@ public class ReportService {
         if (cachedReportOpt.isPresent()) {
             try {
                 log.debug("Returning cached daily report for user {} and period {}", userId, period);
-                return objectMapper.readValue(cachedReportOpt.get().getPayloadJson(), ReportResponseDto.class);
+                return reportPayloadCodec.decode(cachedReportOpt.get());
             } catch (Exception e) {
                 log.error("Error deserializing cached daily report for user {} and period {}", userId, period, e);
             }
@@ -96,38 +145,182 @@ public class ReportService {
         return newReport;
     }
 
-    @Transactional
+    /**
+     * Caches yesterday's daily report for every user. User ids are paged by key and processed in
+     * chunks on virtual threads, at most {@code report.batch.parallelism} chunks at a time, each chunk
+     * committing in its own transaction. Each chunk's reports are upserted in one JDBC batch, so a
+     * rerun overwrites whatever is already cached for the day.
+     */
     public void cacheDailyReportsForAllUsers() {
         LocalDate yesterday = LocalDate.now().minusDays(1);
         String period = yesterday.format(DAILY_PERIOD_FORMAT);
-        List<AppUser> allUsers = appUserRepository.findAll();
+        long totalUsers = appUserRepository.count();
 
-        log.info("Starting to cache daily reports for {} users for period {}", allUsers.size(), period);
+        log.info("Starting to cache daily reports for {} users for period {} (chunk size {}, parallelism {})",
+                totalUsers, period, batchChunkSize, batchParallelism);
 
-        for (AppUser user : allUsers) {
-            try {
-                ReportResponseDto report = buildDailyReport(user, yesterday);
-                cacheReport(user, period, report);
-                log.debug("Successfully cached daily report for user {}", user.getId());
-            } catch (Exception e) {
-                log.error("Failed to cache daily report for user {}", user.getId(), e);
+        BatchProgress progress = new BatchProgress(totalUsers);
+        Semaphore permits = new Semaphore(batchParallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long lastId = 0;
+            while (true) {
+                List<Long> userIds = appUserRepository.findIdsAfter(lastId, PageRequest.of(0, batchChunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                lastId = userIds.get(userIds.size() - 1);
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        cacheDailyReportsForChunk(userIds, yesterday, period, progress);
+                    } finally {
+                        permits.release();
+                    }
+                });
             }
         }
-        log.info("Finished caching daily reports for period {}", period);
+        reportL1Cache.invalidatePeriod(period);
+        log.info("Finished caching daily reports for period {}: {}", period, progress);
+    }
+
+    /**
+     * Set-based variant of {@link #cacheDailyReportsForAllUsers()}: computes every active user's report for
+     * {@code day} with three GROUP BY queries and upserts the rows in JDBC batches, overwriting any rows already
+     * cached for that day. Users without transactions get no row; their empty report is cached on first read.
+     * @return the number of reports written
+     */
+    public int cacheDailyReportsAggregated(LocalDate day) {
+        String period = day.format(DAILY_PERIOD_FORMAT);
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.atTime(LocalTime.MAX);
+        long startNanos = System.nanoTime();
+
+        Integer written = transactionTemplate.execute(status -> {
+            List<TransactionRepository.UserTotalsView> totals =
+                    transactionRepository.aggregateUserTotals(Transaction.Status.CONFIRMED, start, end, GREEN_TIERS);
+            Map<Long, List<CategoryBreakdownDto>> categoriesByUser = transactionRepository.aggregateUserCategories(Transaction.Status.CONFIRMED, start, end).stream()
+                    .collect(Collectors.groupingBy(TransactionRepository.UserGroupView::getUserId,
+                            Collectors.mapping(v -> new CategoryBreakdownDto(v.getCode(), v.getCount(), (int) v.getPoints()),
+                                    Collectors.toList())));
+            Map<Long, List<TopMerchantDto>> merchantsByUser = transactionRepository.aggregateUserMerchants(Transaction.Status.CONFIRMED, start, end).stream()
+                    .collect(Collectors.groupingBy(TransactionRepository.UserGroupView::getUserId,
+                            Collectors.mapping(v -> new TopMerchantDto(v.getCode(), v.getCount(), (int) v.getPoints()),
+                                    Collectors.toList())));
+
+            List<ReportCacheRepositoryCustom.CachedPayload> batch = new ArrayList<>(batchChunkSize);
+            int count = 0;
+            for (TransactionRepository.UserTotalsView row : totals) {
+                List<CategoryBreakdownDto> categoryBreakdown = categoriesByUser.getOrDefault(row.getUserId(), new ArrayList<>());
+                categoryBreakdown.sort(Comparator.comparingInt(CategoryBreakdownDto::getPoints).reversed());
+                List<TopMerchantDto> topMerchants = merchantsByUser.getOrDefault(row.getUserId(), List.of()).stream()
+                        .sorted(Comparator.comparingInt(TopMerchantDto::getPoints).reversed())
+                        .limit(5)
+                        .collect(Collectors.toList());
+                int esgScoreTotal = (int) row.getEsgScoreTotal();
+                ReportResponseDto report = ReportResponseDto.builder()
+                        .period(period)
+                        .totalSpend((int) row.getTotalSpend())
+                        .greenMerchantsUsed(row.getGreenMerchantsUsed())
+                        .carbonSavedKg(esgScoreTotal * CARBON_SAVED_MULTIPLIER)
+                        .categoryBreakdown(categoryBreakdown)
+                        .topMerchants(topMerchants)
+                        .esgScoreTotal(esgScoreTotal)
+                        .build();
+                toPayload(row.getUserId(), period, report).ifPresent(batch::add);
+                if (batch.size() >= batchChunkSize) {
+                    reportCacheRepository.upsertAll(batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            reportCacheRepository.upsertAll(batch);
+            return count + batch.size();
+        });
+
+        reportL1Cache.invalidatePeriod(period);
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 0.001);
+        log.info("Cached {} aggregated daily reports for period {} in {}s ({} reports/s)",
+                written, period, String.format("%.1f", seconds), String.format("%.0f", written / seconds));
+        return written;
+    }
+
+    private void cacheDailyReportsForChunk(List<Long> userIds, LocalDate day, String period, BatchProgress progress) {
+        try {
+            Integer cached = transactionTemplate.execute(status -> {
+                List<ReportCacheRepositoryCustom.CachedPayload> payloads = new ArrayList<>(userIds.size());
+                for (AppUser user : appUserRepository.findAllById(userIds)) {
+                    toPayload(user.getId(), period, buildDailyReport(user, day)).ifPresent(payloads::add);
+                }
+                reportCacheRepository.upsertAll(payloads);
+                return payloads.size();
+            });
+            progress.chunkDone(userIds.size(), cached);
+        } catch (Exception e) {
+            log.error("Failed to cache daily reports for users {}..{} and period {}",
+                    userIds.get(0), userIds.get(userIds.size() - 1), period, e);
+            progress.chunkFailed(userIds.size());
+        }
+    }
+
+    /**
+     * Thread-safe progress counters for the daily report job, logged every few chunks with throughput.
+     */
+    private static final class BatchProgress {
+        private static final int LOG_EVERY_CHUNKS = 10;
+
+        private final long totalUsers;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong cached = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+
+        private BatchProgress(long totalUsers) {
+            this.totalUsers = totalUsers;
+        }
+
+        private void chunkDone(int users, int cachedCount) {
+            processed.addAndGet(users);
+            cached.addAndGet(cachedCount);
+            logProgress();
+        }
+
+        private void chunkFailed(int users) {
+            processed.addAndGet(users);
+            failed.addAndGet(users);
+            logProgress();
+        }
+
+        private void logProgress() {
+            if (chunks.incrementAndGet() % LOG_EVERY_CHUNKS == 0) {
+                log.info("Daily report caching progress: {}", this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 0.001);
+            long done = processed.get();
+            return String.format("%d/%d users (cached %d, failed %d) in %.1fs, %.0f users/s",
+                    done, totalUsers, cached.get(), failed.get(), seconds, done / seconds);
+        }
     }
 
     private void cacheReport(AppUser user, String period, ReportResponseDto report) {
         try {
-            String payloadJson = objectMapper.writeValueAsString(report);
-            ReportCache reportCache = ReportCache.builder()
-                    .user(user)
-                    .period(period)
-                    .payloadJson(payloadJson)
-                    .build();
-            // Use a method that overwrites existing cache for the same user and period
-            reportCacheRepository.save(reportCache);
+            // Overwrites any existing cache entry for the same user and period
+            toPayload(user.getId(), period, report).ifPresent(reportCacheRepository::upsert);
+        } catch (Exception e) {
+            log.error("Failed to cache report for user {} and period {}", user.getId(), period, e);
+        }
+    }
+
+    private Optional<ReportCacheRepositoryCustom.CachedPayload> toPayload(Long userId, String period, ReportResponseDto report) {
+        try {
+            return Optional.of(new ReportCacheRepositoryCustom.CachedPayload(userId, period, reportPayloadCodec.encode(report)));
         } catch (Exception e) {
-            log.error("Failed to serialize and cache report for user {} and period {}", user.getId(), period, e);
+            log.error("Failed to serialize report for user {} and period {}", userId, period, e);
+            return Optional.empty();
         }
     }
 
@@ -149,7 +342,9 @@ public class ReportService {
     }
 
     private ReportResponseDto buildReport(AppUser user, LocalDate startDate, LocalDate endDate, String period) {
-        List<Transaction> transactions = transactionRepository.findAllByUserAndTxTimeBetween(user, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        // Only confirmed transactions count, as in the live month aggregate: pending and rejected spend was never awarded
+        List<Transaction> transactions = transactionRepository.findAllByUserAndStatusAndTxTimeBetween(user, Transaction.Status.CONFIRMED,
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
         if (transactions.isEmpty()) {
             return ReportResponseDto.builder().period(period).totalSpend(0).greenMerchantsUsed(0L).carbonSavedKg(0.0).esgScoreTotal(0).categoryBreakdown(List.of()).topMerchants(List.of()).build();
         }
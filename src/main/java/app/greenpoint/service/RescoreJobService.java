@@ -0,0 +1,351 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.RescoreJob;
+import app.greenpoint.dto.RescoreJobRequestDto;
+import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.EsgLogRepository;
+import app.greenpoint.repository.EsgLogRepositoryCustom.NewEsgLog;
+import app.greenpoint.repository.ReportCacheRepository;
+import app.greenpoint.repository.RankingSnapshotRepository;
+import app.greenpoint.repository.ReportCacheRepositoryCustom.CacheKey;
+import app.greenpoint.repository.RescoreJobRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import app.greenpoint.repository.RewardPointRepositoryCustom.AwardedRow;
+import app.greenpoint.repository.RewardPointRepositoryCustom.ScoreUpdate;
+import app.greenpoint.repository.TransactionRepository;
+import app.greenpoint.repository.TransactionRepositoryCustom.ScoringRow;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Rescores already awarded transactions after category weights or ESG rules change. A job walks the
+ * matching transactions in id order, {@code rescore.chunk-size} at a time, each chunk in its own transaction
+ * under the job row's lock: changed scores are written back to reward_point, every change is recorded as an
+ * esg_log adjustment entry, users' balances are moved by the point difference, and the affected monthly and
+ * daily report caches and monthly ranking snapshots are dropped (snapshots are rebuilt on next read). The job
+ * row holds the checkpoint, so an interrupted or failed job resumes where it stopped (running jobs resume on
+ * startup) and a chunk is never applied twice, even when several instances pick up the same job. Only one job
+ * runs at a time; the unique {@code running_lock} column enforces this across instances.
+ * Chunks are paced to at most {@code rescore.max-rows-per-second} so the job does not starve live traffic.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RescoreJobService {
+
+    private static final int STOPPED = -1;
+
+    private final RescoreJobRepository rescoreJobRepository;
+    private final RewardPointRepository rewardPointRepository;
+    private final TransactionRepository transactionRepository;
+    private final EsgLogRepository esgLogRepository;
+    private final ReportCacheRepository reportCacheRepository;
+    private final RankingSnapshotRepository rankingSnapshotRepository;
+    private final AppUserRepository appUserRepository;
+    private final TransactionService transactionService;
+    private final EsgRuleEngine esgRuleEngine;
+    private final CategoryCatalog categoryCatalog;
+    private final ReportL1Cache reportL1Cache;
+    private final LiveMonthAggregator liveMonthAggregator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("rescore-job").factory());
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+
+    @Value("${rescore.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${rescore.max-rows-per-second:2000}")
+    private int maxRowsPerSecond;
+
+    /**
+     * Records a new job covering every transaction up to the current highest id and starts it in the background.
+     * Transactions recorded later are already scored with the current rules.
+     * @throws IllegalStateException if another job is running
+     */
+    public RescoreJob start(RescoreJobRequestDto dto) {
+        if (dto.getFrom() != null && dto.getTo() != null && dto.getFrom().isAfter(dto.getTo())) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (dto.getCategoryCode() != null && categoryCatalog.find(dto.getCategoryCode()).isEmpty()) {
+            throw new IllegalArgumentException("Unknown category: " + dto.getCategoryCode());
+        }
+        if (rescoreJobRepository.existsByStatus(RescoreJob.Status.RUNNING)) {
+            throw alreadyRunning();
+        }
+        RescoreJob job;
+        try {
+            job = transactionTemplate.execute(status -> rescoreJobRepository.save(RescoreJob.builder()
+                    .status(RescoreJob.Status.RUNNING)
+                    .categoryCode(dto.getCategoryCode())
+                    .fromDate(dto.getFrom())
+                    .toDate(dto.getTo())
+                    .reason(dto.getReason())
+                    .maxTxId(transactionRepository.findMaxId())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against a concurrent start, possibly on another instance
+            throw alreadyRunning();
+        }
+        submit(job.getId());
+        return job;
+    }
+
+    /**
+     * Restarts a failed or cancelled job from its checkpoint.
+     * @throws IllegalStateException if the job has completed, is already running here, or another job is running
+     */
+    public RescoreJob resume(Long jobId) {
+        RescoreJob job;
+        try {
+            job = transactionTemplate.execute(status -> {
+                RescoreJob locked = lockJob(jobId);
+                if (locked.getStatus() == RescoreJob.Status.COMPLETED) {
+                    throw new IllegalStateException("Rescoring job " + jobId + " has already completed");
+                }
+                if (activeJobs.contains(jobId)) {
+                    throw new IllegalStateException("Rescoring job " + jobId + " is already running");
+                }
+                locked.setStatus(RescoreJob.Status.RUNNING);
+                locked.setLastError(null);
+                locked.setFinishedAt(null);
+                return rescoreJobRepository.saveAndFlush(locked);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw alreadyRunning();
+        }
+        submit(jobId);
+        return job;
+    }
+
+    /**
+     * Stops a running job after its current chunk; it can be resumed later.
+     */
+    public RescoreJob cancel(Long jobId) {
+        return transactionTemplate.execute(status -> {
+            RescoreJob job = lockJob(jobId);
+            if (job.getStatus() != RescoreJob.Status.RUNNING) {
+                throw new IllegalStateException("Rescoring job " + jobId + " is not running");
+            }
+            job.setStatus(RescoreJob.Status.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            return job;
+        });
+    }
+
+    public RescoreJob getJob(Long jobId) {
+        return rescoreJobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("RescoreJob not found with id: " + jobId));
+    }
+
+    public List<RescoreJob> getRecentJobs() {
+        return rescoreJobRepository.findTop20ByOrderByIdDesc();
+    }
+
+    /**
+     * Picks up jobs that were still running when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (RescoreJob job : rescoreJobRepository.findByStatus(RescoreJob.Status.RUNNING)) {
+            log.info("Resuming rescoring job {} after transaction {}", job.getId(), job.getLastTxId());
+            submit(job.getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING and resume from their checkpoint on the next start
+        runner.shutdownNow();
+    }
+
+    private void submit(Long jobId) {
+        if (activeJobs.add(jobId)) {
+            runner.execute(() -> run(jobId));
+        }
+    }
+
+    private void run(Long jobId) {
+        long startNanos = System.nanoTime();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long chunkStartNanos = System.nanoTime();
+                Integer processed = transactionTemplate.execute(status -> processChunk(jobId));
+                if (processed == null || processed == STOPPED) {
+                    break;
+                }
+                throttle(processed, chunkStartNanos);
+            }
+            RescoreJob job = getJob(jobId);
+            log.info("Rescoring job {} stopped as {} after {} ms: {} scanned, {} adjusted, {} points",
+                    jobId, job.getStatus(), (System.nanoTime() - startNanos) / 1_000_000,
+                    job.getScanned(), job.getAdjusted(), job.getPointsDelta());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Rescoring job {} interrupted; it resumes from its checkpoint on the next start", jobId);
+        } catch (RuntimeException e) {
+            log.error("Rescoring job {} failed", jobId, e);
+            markFailed(jobId, e);
+        } finally {
+            activeJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Rescores the next chunk after the job's checkpoint and advances it.
+     * @return the number of transactions processed, or {@link #STOPPED} once the job is finished or no longer running
+     */
+    private int processChunk(Long jobId) {
+        RescoreJob job = lockJob(jobId);
+        if (job.getStatus() != RescoreJob.Status.RUNNING) {
+            return STOPPED;
+        }
+        List<AwardedRow> rows = rewardPointRepository.findAwardedAfter(job.getLastTxId(), job.getMaxTxId(),
+                job.getCategoryCode(), startOf(job.getFromDate()), endOf(job.getToDate()), chunkSize);
+        if (rows.isEmpty()) {
+            job.setStatus(RescoreJob.Status.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            return STOPPED;
+        }
+
+        Adjustments adjustments = plan(jobId, rows,
+                row -> esgRuleEngine.score(EsgFacts.of(row, categoryCatalog.weightOf(row.categoryCode()))));
+        apply(adjustments);
+
+        job.setLastTxId(rows.get(rows.size() - 1).transaction().txId());
+        job.setScanned(job.getScanned() + rows.size());
+        job.setAdjusted(job.getAdjusted() + adjustments.scoreUpdates().size());
+        job.setPointsDelta(job.getPointsDelta() + adjustments.pointsByUser().values().stream().mapToLong(Integer::longValue).sum());
+        log.debug("Rescoring job {} reached transaction {} ({} adjusted in chunk)",
+                jobId, job.getLastTxId(), adjustments.scoreUpdates().size());
+        return rows.size();
+    }
+
+    /**
+     * Works out the writes for one chunk; rows whose score is unchanged produce none.
+     */
+    static Adjustments plan(long jobId, List<AwardedRow> rows, ToIntFunction<ScoringRow> scorer) {
+        List<ScoreUpdate> scoreUpdates = new ArrayList<>();
+        List<NewEsgLog> ledger = new ArrayList<>();
+        Map<Long, Integer> pointsByUser = new TreeMap<>();
+        Set<CacheKey> staleReports = new LinkedHashSet<>();
+        Set<String> staleMonths = new LinkedHashSet<>();
+        for (AwardedRow row : rows) {
+            ScoringRow tx = row.transaction();
+            int esgScore = scorer.applyAsInt(tx);
+            if (esgScore == row.esgScore()) {
+                continue;
+            }
+            int points = esgScore * TransactionService.POINT_MULTIPLIER;
+            scoreUpdates.add(new ScoreUpdate(row.pointId(), esgScore, points));
+            ledger.add(new NewEsgLog(tx.userId(), tx.txId(), tx.merchantId(), String.format(
+                    "{\"type\":\"RESCORE\",\"jobId\":%d,\"oldScore\":%d,\"newScore\":%d,\"oldPoints\":%d,\"newPoints\":%d}",
+                    jobId, row.esgScore(), esgScore, row.points(), points)));
+            pointsByUser.merge(tx.userId(), points - row.points(), Integer::sum);
+            String month = YearMonth.from(tx.txTime()).toString();
+            staleMonths.add(month);
+            staleReports.add(new CacheKey(tx.userId(), month));
+            staleReports.add(new CacheKey(tx.userId(), tx.txTime().toLocalDate().toString()));
+        }
+        return new Adjustments(scoreUpdates, ledger, pointsByUser, List.copyOf(staleReports), List.copyOf(staleMonths));
+    }
+
+    private void apply(Adjustments adjustments) {
+        if (adjustments.scoreUpdates().isEmpty()) {
+            return;
+        }
+        rewardPointRepository.updateScores(adjustments.scoreUpdates());
+        esgLogRepository.insertAll(adjustments.ledger());
+
+        // One increment per user, in id order, like the award worker, so concurrent awards cannot deadlock with us
+        Map<Long, AppUser> users = appUserRepository.findAllById(adjustments.pointsByUser().keySet()).stream()
+                .collect(Collectors.toMap(AppUser::getId, Function.identity()));
+        adjustments.pointsByUser().forEach((userId, delta) -> {
+            AppUser user = users.get(userId);
+            if (user != null && delta != 0) {
+                transactionService.accruePoints(user, delta);
+            }
+        });
+
+        reportCacheRepository.evictAll(adjustments.staleReports());
+        if (!adjustments.staleMonths().isEmpty()) {
+            rankingSnapshotRepository.deleteByPeriodYmIn(adjustments.staleMonths());
+        }
+        TransactionHooks.afterCommit(() -> {
+            adjustments.staleReports().forEach(key -> reportL1Cache.invalidate(key.userId(), key.period()));
+            adjustments.pointsByUser().keySet().forEach(liveMonthAggregator::evict);
+        });
+    }
+
+    private static IllegalStateException alreadyRunning() {
+        return new IllegalStateException("A rescoring job is already running");
+    }
+
+    private void markFailed(Long jobId, RuntimeException cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                RescoreJob job = lockJob(jobId);
+                job.setStatus(RescoreJob.Status.FAILED);
+                String message = String.valueOf(cause.getMessage());
+                job.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                job.setFinishedAt(LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record failure of rescoring job {}", jobId, e);
+        }
+    }
+
+    private void throttle(int rows, long chunkStartNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long minNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long remaining = minNanos - (System.nanoTime() - chunkStartNanos);
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private RescoreJob lockJob(Long jobId) {
+        return rescoreJobRepository.lockById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("RescoreJob not found with id: " + jobId));
+    }
+
+    private static LocalDateTime startOf(LocalDate day) {
+        return day != null ? day.atStartOfDay() : null;
+    }
+
+    private static LocalDateTime endOf(LocalDate day) {
+        return day != null ? day.plusDays(1).atStartOfDay() : null;
+    }
+
+    record Adjustments(List<ScoreUpdate> scoreUpdates, List<NewEsgLog> ledger, Map<Long, Integer> pointsByUser,
+                       List<CacheKey> staleReports, List<String> staleMonths) {
+    }
+}
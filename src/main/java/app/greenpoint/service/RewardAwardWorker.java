@@ -0,0 +1,165 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.RewardOutbox;
+import app.greenpoint.domain.RewardPoint;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.repository.RewardOutboxRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import app.greenpoint.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scores and rewards transactions queued in {@code reward_outbox} by the async ingestion mode
+ * ({@code reward.pipeline.async}). It polls regardless of that flag so turning it off still drains the backlog.
+ * Each worker claims a batch of due entries with {@code FOR UPDATE SKIP LOCKED}, so workers (on this or
+ * other instances) never wait on each other, then awards the whole batch in one transaction with a single
+ * point increment per affected user. A batch that fails is retried entry by
+ * entry so a single bad transaction is backed off without holding up the rest.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RewardAwardWorker {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final RewardOutboxRepository rewardOutboxRepository;
+    private final TransactionRepository transactionRepository;
+    private final RewardPointRepository rewardPointRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @Value("${reward.pipeline.workers:4}")
+    private int workers;
+
+    @Value("${reward.pipeline.batch-size:200}")
+    private int batchSize;
+
+    @Value("${reward.pipeline.retry-backoff:5s}")
+    private Duration retryBackoff;
+
+    @Scheduled(fixedDelayString = "${reward.pipeline.poll-interval-ms:500}")
+    public void poll() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Runs {@code reward.pipeline.workers} workers until no due entries are left.
+     */
+    public void drain() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(() -> {
+                    while (awardNextBatch() == batchSize) {
+                        // keep draining while batches come back full
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Claims and awards one batch of due entries.
+     * @return the number of entries claimed
+     */
+    int awardNextBatch() {
+        List<Long> claimedIds = new ArrayList<>();
+        try {
+            Integer claimed = transactionTemplate.execute(status -> {
+                List<RewardOutbox> entries = rewardOutboxRepository.claimDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+                entries.forEach(entry -> claimedIds.add(entry.getId()));
+                award(entries);
+                return entries.size();
+            });
+            return claimed != null ? claimed : 0;
+        } catch (RuntimeException e) {
+            log.warn("Awarding a batch of {} outbox entries failed; retrying them one by one", claimedIds.size(), e);
+            claimedIds.forEach(this::awardSingle);
+            return claimedIds.size();
+        }
+    }
+
+    private void awardSingle(Long outboxId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rewardOutboxRepository.claimById(outboxId)
+                    .ifPresent(entry -> award(List.of(entry))));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> rewardOutboxRepository.claimById(outboxId)
+                    .ifPresent(entry -> backOff(entry, e)));
+        }
+    }
+
+    private void award(List<RewardOutbox> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Transaction> transactions = transactionRepository.findAllById(entries.stream().map(RewardOutbox::getTxId).toList());
+
+        Map<Long, AppUser> users = new HashMap<>();
+        Map<Long, Integer> pointsByUser = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getStatus() != Transaction.Status.PENDING) {
+                continue; // already awarded
+            }
+            AppUser user = transaction.getUser();
+            users.putIfAbsent(user.getId(), user);
+            int esgScore = transactionService.calculateEsgScore(transaction);
+            int pointsEarned = esgScore * TransactionService.POINT_MULTIPLIER;
+
+            rewardPointRepository.save(RewardPoint.builder()
+                    .user(user)
+                    .transaction(transaction)
+                    .points(pointsEarned)
+                    .esgScore(esgScore)
+                    .reason("Transaction reward")
+                    .build());
+            transaction.setStatus(Transaction.Status.CONFIRMED);
+            pointsByUser.merge(user.getId(), pointsEarned, Integer::sum);
+            transactionService.publishTransactionRecorded(transaction, esgScore, pointsEarned);
+        }
+
+        // One increment per user, in id order, so concurrent batches touching the same users cannot deadlock
+        pointsByUser.forEach((userId, delta) -> transactionService.accruePoints(users.get(userId), delta));
+        rewardOutboxRepository.deleteAllInBatch(entries);
+    }
+
+    private void backOff(RewardOutbox entry, RuntimeException cause) {
+        int attempts = entry.getAttempts() + 1;
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(MAX_BACKOFF) > 0) {
+            delay = MAX_BACKOFF;
+        }
+        entry.setAttempts(attempts);
+        entry.setAvailableAt(LocalDateTime.now().plus(delay));
+        String message = String.valueOf(cause.getMessage());
+        entry.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        log.error("Awarding transaction {} failed (attempt {}); next try in {}", entry.getTxId(), attempts, delay, cause);
+    }
+}
@@ -26,6 +26,7 @@ public class RewardService {
 
     private final AppUserRepository appUserRepository;
     private final RewardPointRepository rewardPointRepository;
+    private final CategoryCatalog categoryCatalog;
 
     @Transactional(readOnly = true)
     public UserBalanceDto getUserBalance(Long userId) {
@@ -70,7 +71,7 @@ public class RewardService {
         String categoryName = "N/A";
         if (transaction.getMerchant() != null) {
             merchantName = transaction.getMerchant().getName();
-            categoryName = transaction.getMerchant().getCategoryCode();
+            categoryName = categoryCatalog.nameOf(transaction.getMerchant().getCategoryCode(), transaction.getMerchant().getCategoryCode());
         }
 
         return new RewardHistoryItemDto(
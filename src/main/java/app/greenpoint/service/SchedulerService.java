@@ -3,15 +3,23 @@ package app.greenpoint.service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+
 @Service
 @RequiredArgsConstructor
 public class SchedulerService {
 
     private static final Logger logger = LoggerFactory.getLogger(SchedulerService.class);
     private final ReportService reportService;
+    private final RankingService rankingService;
+
+    @Value("${report.batch.mode:aggregate}")
+    private String reportBatchMode;
 
     /**
      * 매일 오전 2시에 모든 사용자의 전날 리포트를 캐시합니다.
@@ -20,10 +28,29 @@ public class SchedulerService {
     public void cachePreviousDayReports() {
         logger.info("Starting daily report caching for all users...");
         try {
-            reportService.cacheDailyReportsForAllUsers();
+            if ("per-user".equalsIgnoreCase(reportBatchMode)) {
+                reportService.cacheDailyReportsForAllUsers();
+            } else {
+                reportService.cacheDailyReportsAggregated(LocalDate.now().minusDays(1));
+            }
             logger.info("Successfully cached daily reports for all users.");
         } catch (Exception e) {
             logger.error("Error during daily report caching", e);
         }
     }
+
+    /**
+     * 매월 1일 0시 10분에 지난 달의 전체 및 지역별 랭킹 스냅샷을 생성합니다.
+     */
+    @Scheduled(cron = "0 10 0 1 * ?") // 00:10 on the first day of every month
+    public void buildPreviousMonthRankingSnapshots() {
+        YearMonth previousMonth = YearMonth.now().minusMonths(1);
+        logger.info("Building ranking snapshots for {}...", previousMonth);
+        try {
+            int saved = rankingService.rebuildSnapshots(previousMonth);
+            logger.info("Successfully built {} ranking snapshots for {}.", saved, previousMonth);
+        } catch (Exception e) {
+            logger.error("Error building ranking snapshots for " + previousMonth, e);
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a transaction is confirmed and rewarded. Listeners are notified after the
+ * surrounding transaction commits. Merchant fields are null for unmatched transactions.
+ */
+public record TransactionRecordedEvent(Long userId, Long txId, LocalDateTime txTime, int amount,
+                                       Long merchantId, String merchantName, String categoryCode,
+                                       Merchant.EsgTier esgTier, int esgScore, int points) {
+}
@@ -1,7 +1,13 @@
 package app.greenpoint.service;
 
 import app.greenpoint.domain.*;
+import app.greenpoint.config.KakaoPayResilienceConfig;
+import app.greenpoint.dto.CursorPageDto;
+import app.greenpoint.dto.GeoDto;
 import app.greenpoint.dto.MatchedMerchantDto;
+import app.greenpoint.dto.TransactionBatchItemDto;
+import app.greenpoint.dto.TransactionBatchItemResultDto;
+import app.greenpoint.dto.TransactionBatchResultDto;
 import app.greenpoint.dto.TransactionRequestDto;
 import app.greenpoint.dto.TransactionResponseDto;
 import app.greenpoint.repository.*;
@@ -9,19 +15,40 @@ import app.greenpoint.dto.kakaopay.KakaoPayApproveRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayApproveResponseDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.Optional;
 import app.greenpoint.dto.TransactionHistoryDto;
 import java.util.Optional;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 @Service
@@ -34,50 +61,91 @@ public class TransactionService {
     private final MerchantRepository merchantRepository;
     private final TransactionRepository transactionRepository;
     private final RewardPointRepository rewardPointRepository;
-    private final CategoryRepository categoryRepository; // Assuming Category has code and esg_weight
+    private final EsgRuleEngine esgRuleEngine;
     private final KakaoPayService kakaoPayService;
+    private final MerchantGeoIndex merchantGeoIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RewardOutboxRepository rewardOutboxRepository;
 
-    private static final int POINT_MULTIPLIER = 10;
+    private final Map<Long, CompletableFuture<TransactionResponseDto>> inFlightApprovals = new ConcurrentHashMap<>();
+
+    @Value("${map.match-radius-meters:150}")
+    private double matchRadiusMeters;
+
+    @Value("${reward.pipeline.async:false}")
+    private boolean rewardPipelineAsync;
+
+    static final int POINT_MULTIPLIER = 10;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
 
     @Transactional(readOnly = true)
-    public List<TransactionHistoryDto> getTransactionsByUserEmail(String userEmail) {
+    public CursorPageDto<TransactionHistoryDto> getTransactionsByUserEmail(String userEmail, String cursor, int size) {
         AppUser user = appUserRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
-        List<Transaction> transactions = transactionRepository.findByUserOrderByTxTimeDesc(user);
+        // Keyset pagination on (tx_time, tx_id): fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionHistoryDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findHistoryPage(user.getId(), limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findHistoryPageAfter(user.getId(), after.txTime(), after.txId(), limit);
+        }
+        return CursorPageDto.of(rows, size, row -> new TransactionCursor(row.getTxTime(), row.getTxId()).encode());
+    }
+
+    /**
+     * Writes the user's full history as NDJSON (one JSON object per line), row by row as it is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactionHistory(Long userId, OutputStream out) throws IOException {
+        try (Stream<TransactionHistoryDto> rows = transactionRepository.streamHistoryByUserId(userId)) {
+            writeNdjson(rows, TransactionHistoryDto.class, userId, out);
+        }
+    }
+
+    /**
+     * Same as {@link #exportTransactionHistory}, but in the {@link TransactionResponseDto} shape served by the
+     * paged user transaction list, so the export is a full dump of that resource.
+     */
+    @Transactional(readOnly = true)
+    public void exportUserTransactions(Long userId, OutputStream out) throws IOException {
+        try (Stream<TransactionResponseDto> rows = transactionRepository.streamResponsesByUserId(userId)) {
+            writeNdjson(rows, TransactionResponseDto.class, userId, out);
+        }
+    }
 
-        return transactions.stream().map(transaction -> {
-            String merchantName = (transaction.getMerchant() != null) ? transaction.getMerchant().getName() : "N/A";
-            String categoryName = "N/A";
-            if (transaction.getMerchant() != null && transaction.getMerchant().getCategoryCode() != null) {
-                categoryName = categoryRepository.findById(transaction.getMerchant().getCategoryCode())
-                        .map(Category::getName)
-                        .orElse("N/A");
+    private <T> void writeNdjson(Stream<T> rows, Class<T> type, Long userId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type);
+        int written = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                out.flush();
             }
+        }
+        out.flush();
+        log.debug("Exported {} transactions for user {}", written, userId);
+    }
 
-            RewardPoint rewardPoint = rewardPointRepository.findByTransaction(transaction).orElse(null);
-            int esgScore = (rewardPoint != null) ? rewardPoint.getEsgScore() : 0;
-            int pointsEarned = (rewardPoint != null) ? rewardPoint.getPoints() : 0;
-
-            log.debug("Transaction ID: {}, Merchant Name: {}, Category Name: {}, Points Earned: {}",
-                      transaction.getId(), merchantName, categoryName, pointsEarned);
-
-            return new TransactionHistoryDto(
-                    transaction.getId(),
-                    transaction.getTxTime(),
-                    transaction.getAmount(),
-                    transaction.getSource(),
-                    transaction.getStatus(),
-                    merchantName,
-                    categoryName,
-                    esgScore,
-                    pointsEarned
-            );
-        }).collect(Collectors.toList());
+    /**
+     * True when submitted transactions are only recorded and queued, and {@link RewardAwardWorker} awards them later.
+     */
+    public boolean isRewardPipelineAsync() {
+        return rewardPipelineAsync;
     }
 
     @Transactional
     public TransactionResponseDto processTransaction(String userEmail, TransactionRequestDto requestDto) {
+        if (rewardPipelineAsync) {
+            return enqueueTransaction(userEmail, requestDto);
+        }
+
         // 1. Find User
         AppUser user = appUserRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
@@ -116,10 +184,11 @@ public class TransactionService {
         rewardPointRepository.save(rewardPoint);
 
         // 6. Update User's Points and Level
-        user.addPoints(pointsEarned);
+        int userPoints = accruePoints(user, pointsEarned);
 
         // 7. Finalize Transaction Status
         transaction.setStatus(Transaction.Status.CONFIRMED);
+        publishTransactionRecorded(transaction, esgScore, pointsEarned);
         // No need to save transaction explicitly, handled by @Transactional
 
 
@@ -133,38 +202,165 @@ public class TransactionService {
                 matchedMerchantDto,
                 esgScore,
                 pointsEarned,
-                user.getPoints(),
-                (merchant != null) ? merchant.getEsgTier() : null
+                userPoints,
+                (merchant != null) ? merchant.getEsgTier() : null,
+                transaction.getTxTime()
         );
     }
 
+    /**
+     * Imports a partner batch in one transaction. Users and merchants are resolved with one IN query each,
+     * items are scored in memory, transactions and reward points are written with JDBC batch inserts, and
+     * each affected user gets a single point increment. Items whose user cannot be found are rejected
+     * individually and not stored; results are returned in request order.
+     */
     @Transactional
-    public KakaoPayReadyResponseDto initiateKakaoPayPayment(String userEmail, TransactionRequestDto requestDto) {
+    public TransactionBatchResultDto processBatch(List<TransactionBatchItemDto> items) {
+        long startNanos = System.nanoTime();
+        Map<String, AppUser> usersByEmail = appUserRepository.findByEmailIn(
+                        items.stream().map(TransactionBatchItemDto::getUserEmail).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(AppUser::getEmail, Function.identity()));
+
+        Long[] merchantIds = new Long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            merchantIds[i] = matchMerchantId(items.get(i));
+        }
+        Map<Long, Merchant> merchantsById = merchantRepository.findAllById(
+                        Arrays.stream(merchantIds).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Merchant::getId, Function.identity()));
+
+        // Score every item in memory
+        TransactionBatchItemResultDto[] results = new TransactionBatchItemResultDto[items.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>(items.size());
+        List<Transaction> accepted = new ArrayList<>(items.size());
+        List<TransactionRepositoryCustom.NewTransaction> rows = new ArrayList<>(items.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items.size(); i++) {
+            TransactionBatchItemDto item = items.get(i);
+            AppUser user = usersByEmail.get(item.getUserEmail());
+            if (user == null) {
+                results[i] = new TransactionBatchItemResultDto(i, null, Transaction.Status.REJECTED, 0, 0,
+                        "User not found with email: " + item.getUserEmail());
+                continue;
+            }
+            Merchant merchant = (merchantIds[i] != null) ? merchantsById.get(merchantIds[i]) : null;
+            Transaction transaction = Transaction.builder()
+                    .user(user)
+                    .merchant(merchant)
+                    .amount(item.getAmount())
+                    .txTime(item.getTxTime() != null ? item.getTxTime() : now)
+                    .lat(item.getGeo() != null ? item.getGeo().getLat() : null)
+                    .lng(item.getGeo() != null ? item.getGeo().getLng() : null)
+                    .source(item.getSource())
+                    .status(Transaction.Status.CONFIRMED)
+                    .build();
+            acceptedIndexes.add(i);
+            accepted.add(transaction);
+            rows.add(new TransactionRepositoryCustom.NewTransaction(user.getId(), merchant != null ? merchant.getId() : null,
+                    transaction.getAmount(), transaction.getTxTime(), transaction.getLat(), transaction.getLng(),
+                    transaction.getSource(), transaction.getStatus()));
+        }
+
+        // Write transactions, then their rewards, in JDBC batches
+        List<Long> txIds = transactionRepository.insertAll(rows);
+        List<RewardPointRepositoryCustom.NewRewardPoint> rewards = new ArrayList<>(accepted.size());
+        Map<Long, AppUser> users = new HashMap<>();
+        Map<Long, Integer> pointsByUser = new TreeMap<>();
+        int[] esgScores = new int[accepted.size()];
+        for (int j = 0; j < accepted.size(); j++) {
+            Transaction transaction = accepted.get(j);
+            transaction.setId(txIds.get(j));
+            AppUser user = transaction.getUser();
+            int esgScore = calculateEsgScore(transaction);
+            int pointsEarned = esgScore * POINT_MULTIPLIER;
+            esgScores[j] = esgScore;
+            rewards.add(new RewardPointRepositoryCustom.NewRewardPoint(user.getId(), transaction.getId(), pointsEarned, esgScore,
+                    "Batch import reward"));
+            users.putIfAbsent(user.getId(), user);
+            pointsByUser.merge(user.getId(), pointsEarned, Integer::sum);
+            results[acceptedIndexes.get(j)] = new TransactionBatchItemResultDto(acceptedIndexes.get(j), transaction.getId(),
+                    Transaction.Status.CONFIRMED, esgScore, pointsEarned, null);
+        }
+        rewardPointRepository.insertAll(rewards);
+
+        // One increment per user, in id order
+        pointsByUser.forEach((userId, delta) -> accruePoints(users.get(userId), delta));
+        for (int j = 0; j < accepted.size(); j++) {
+            publishTransactionRecorded(accepted.get(j), esgScores[j], esgScores[j] * POINT_MULTIPLIER);
+        }
+
+        log.info("Imported {} of {} batch transactions for {} users in {} ms", accepted.size(), items.size(),
+                pointsByUser.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        return new TransactionBatchResultDto(items.size(), accepted.size(), items.size() - accepted.size(), Arrays.asList(results));
+    }
+
+    /**
+     * Records the transaction as PENDING together with its outbox entry and returns without scoring it,
+     * so the request never locks the user's row. Points are awarded by {@link RewardAwardWorker}; the
+     * response carries the user's balance before the award and zero for the score and points.
+     */
+    private TransactionResponseDto enqueueTransaction(String userEmail, TransactionRequestDto requestDto) {
         AppUser user = appUserRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
 
         Merchant merchant = matchMerchant(requestDto);
 
-        // Set txTime to now if it's null
         LocalDateTime txTime = (requestDto.getTxTime() != null) ? requestDto.getTxTime() : LocalDateTime.now();
 
-        // Create a pending transaction for KakaoPay
-        Transaction transaction = Transaction.builder()
+        Transaction transaction = transactionRepository.save(Transaction.builder()
                 .user(user)
                 .merchant(merchant)
                 .amount(requestDto.getAmount())
                 .txTime(txTime)
                 .lat(requestDto.getGeo() != null ? requestDto.getGeo().getLat() : null)
                 .lng(requestDto.getGeo() != null ? requestDto.getGeo().getLng() : null)
-                .source(Transaction.Source.KAKAOPAY)
+                .source(requestDto.getSource())
                 .status(Transaction.Status.PENDING)
-                .build();
-        transaction = transactionRepository.save(transaction);
+                .build());
+        rewardOutboxRepository.save(RewardOutbox.builder()
+                .txId(transaction.getId())
+                .availableAt(LocalDateTime.now())
+                .build());
+
+        return toResponse(transaction, 0, 0, user.getPoints());
+    }
+
+    /**
+     * Starts a KakaoPay payment in three steps so no database connection is held across the gateway call:
+     * a short transaction persists the PENDING transaction, the ready call runs outside any transaction,
+     * and a second short transaction records the gateway TID (or rejects the transaction if the call failed).
+     */
+    public KakaoPayReadyResponseDto initiateKakaoPayPayment(String userEmail, TransactionRequestDto requestDto) {
+        // 1. Persist the pending transaction
+        Transaction transaction = transactionTemplate.execute(status -> {
+            AppUser user = appUserRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
+
+            Merchant merchant = matchMerchant(requestDto);
+
+            // Set txTime to now if it's null
+            LocalDateTime txTime = (requestDto.getTxTime() != null) ? requestDto.getTxTime() : LocalDateTime.now();
+
+            // Create a pending transaction for KakaoPay
+            return transactionRepository.save(Transaction.builder()
+                    .user(user)
+                    .merchant(merchant)
+                    .amount(requestDto.getAmount())
+                    .txTime(txTime)
+                    .lat(requestDto.getGeo() != null ? requestDto.getGeo().getLat() : null)
+                    .lng(requestDto.getGeo() != null ? requestDto.getGeo().getLng() : null)
+                    .source(Transaction.Source.KAKAOPAY)
+                    .status(Transaction.Status.PENDING)
+                    .build());
+        });
+        Long txId = transaction.getId();
 
         // Prepare KakaoPay ready request
         KakaoPayReadyRequestDto kakaoPayReadyRequest = new KakaoPayReadyRequestDto();
-        kakaoPayReadyRequest.setPartner_order_id(String.valueOf(transaction.getId())); // Use transaction ID as order ID
-        kakaoPayReadyRequest.setPartner_user_id(String.valueOf(user.getId()));
+        kakaoPayReadyRequest.setPartner_order_id(String.valueOf(txId)); // Use transaction ID as order ID
+        kakaoPayReadyRequest.setPartner_user_id(String.valueOf(transaction.getUser().getId()));
         kakaoPayReadyRequest.setItem_name(requestDto.getItemName() != null ? requestDto.getItemName() : "GreenPoint Payment");
         kakaoPayReadyRequest.setQuantity(requestDto.getQuantity() != null ? requestDto.getQuantity() : 1);
         kakaoPayReadyRequest.setTotal_amount(requestDto.getAmount());
@@ -172,123 +368,245 @@ public class TransactionService {
         kakaoPayReadyRequest.setVat_amount(requestDto.getAmount() / 11); // Assuming 10% VAT
 
         // Set dynamic approval URL to include the transaction ID
-        String approvalUrl = kakaoPayService.getRedirectHost() + kakaoPayService.getApprovalPath() + "/" + transaction.getId();
+        String approvalUrl = kakaoPayService.getRedirectHost() + kakaoPayService.getApprovalPath() + "/" + txId;
         kakaoPayReadyRequest.setApproval_url(approvalUrl);
 
-        KakaoPayReadyResponseDto kakaoPayReadyResponse = kakaoPayService.readyPayment(kakaoPayReadyRequest);
+        // 2. Call the gateway with no transaction open
+        KakaoPayReadyResponseDto kakaoPayReadyResponse;
+        try {
+            kakaoPayReadyResponse = kakaoPayService.readyPayment(kakaoPayReadyRequest);
+        } catch (RuntimeException e) {
+            log.warn("KakaoPay ready failed for transaction {}; marking it rejected", txId, e);
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.findById(txId)
+                    .filter(tx -> tx.getStatus() == Transaction.Status.PENDING)
+                    .ifPresent(tx -> tx.setStatus(Transaction.Status.REJECTED)));
+            throw e;
+        }
 
-        // Update transaction with KakaoPay tid
-        transaction.setTid(kakaoPayReadyResponse.getTid());
-        transactionRepository.save(transaction);
+        // 3. Update transaction with KakaoPay tid
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.findById(txId)
+                .ifPresent(tx -> tx.setTid(kakaoPayReadyResponse.getTid())));
 
         return kakaoPayReadyResponse;
     }
 
-    @Transactional
+    /**
+     * Approves a KakaoPay payment. The gateway call runs outside any transaction, and the confirmation
+     * re-checks the status under a row lock, so the method is idempotent on the transaction id: repeated or
+     * concurrent callbacks for an already confirmed payment return the original result without awarding twice.
+     * Duplicate callbacks arriving while an approval is in flight on this instance wait for and share its result.
+     */
     public TransactionResponseDto approveKakaoPayPayment(String pgToken, Long orderId) {
-        // Find the pending transaction by its ID (which was used as partner_order_id)
-        Transaction transaction = transactionRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + orderId));
-
-        // Security and state check
-        if (!transaction.getStatus().equals(Transaction.Status.PENDING)) {
-            throw new IllegalStateException("Transaction is not in a pending state for approval.");
+        CompletableFuture<TransactionResponseDto> approval = new CompletableFuture<>();
+        CompletableFuture<TransactionResponseDto> inFlight = inFlightApprovals.putIfAbsent(orderId, approval);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+            }
         }
-        if (transaction.getTid() == null) {
-            throw new IllegalStateException("Transaction does not have a KakaoPay TID.");
+        try {
+            TransactionResponseDto response = doApproveKakaoPayPayment(pgToken, orderId);
+            approval.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            approval.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightApprovals.remove(orderId, approval);
+        }
+    }
+
+    private TransactionResponseDto doApproveKakaoPayPayment(String pgToken, Long orderId) {
+        // 1. Validate state and prepare the approve request
+        KakaoPayApproveRequestDto kakaoPayApproveRequest = transactionTemplate.execute(status -> {
+            // Find the pending transaction by its ID (which was used as partner_order_id)
+            Transaction transaction = transactionRepository.findById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + orderId));
+
+            if (transaction.getStatus() == Transaction.Status.CONFIRMED) {
+                return null; // Already approved
+            }
+            // Security and state check
+            if (!transaction.getStatus().equals(Transaction.Status.PENDING)) {
+                throw new IllegalStateException("Transaction is not in a pending state for approval.");
+            }
+            if (transaction.getTid() == null) {
+                throw new IllegalStateException("Transaction does not have a KakaoPay TID.");
+            }
+
+            // Prepare KakaoPay approve request
+            KakaoPayApproveRequestDto request = new KakaoPayApproveRequestDto();
+            request.setTid(transaction.getTid());
+            request.setPartner_order_id(String.valueOf(transaction.getId()));
+            request.setPartner_user_id(String.valueOf(transaction.getUser().getId()));
+            request.setPg_token(pgToken);
+            return request;
+        });
+        if (kakaoPayApproveRequest == null) {
+            log.info("Transaction {} is already confirmed; returning the recorded result", orderId);
+            return transactionTemplate.execute(status -> toConfirmedResponse(transactionRepository.findById(orderId).orElseThrow()));
         }
 
-        // Prepare KakaoPay approve request
-        KakaoPayApproveRequestDto kakaoPayApproveRequest = new KakaoPayApproveRequestDto();
-        kakaoPayApproveRequest.setTid(transaction.getTid());
-        kakaoPayApproveRequest.setPartner_order_id(String.valueOf(transaction.getId()));
-        kakaoPayApproveRequest.setPartner_user_id(String.valueOf(transaction.getUser().getId()));
-        kakaoPayApproveRequest.setPg_token(pgToken);
+        // 2. Call the gateway with no transaction open
+        KakaoPayApproveResponseDto kakaoPayApproveResponse;
+        try {
+            kakaoPayApproveResponse = kakaoPayService.approvePayment(kakaoPayApproveRequest);
+        } catch (RuntimeException e) {
+            // Another instance may have approved it first and the gateway rejected this duplicate;
+            // the row lock waits for a confirmation that is still being written
+            TransactionResponseDto confirmed = transactionTemplate.execute(status -> transactionRepository.findByIdForUpdate(orderId)
+                    .filter(tx -> tx.getStatus() == Transaction.Status.CONFIRMED)
+                    .map(this::toConfirmedResponse)
+                    .orElse(null));
+            if (confirmed != null) {
+                return confirmed;
+            }
+            kakaoPayApproveResponse = approvedAtGateway(kakaoPayApproveRequest, orderId, e);
+        }
 
-        KakaoPayApproveResponseDto kakaoPayApproveResponse = kakaoPayService.approvePayment(kakaoPayApproveRequest);
+        // 3. Confirm and award points under a row lock
+        return confirmApproval(orderId, kakaoPayApproveResponse);
+    }
 
-        // Update transaction status and KakaoPay details
-        transaction.setStatus(Transaction.Status.CONFIRMED);
-        transaction.setAid(kakaoPayApproveResponse.getAid());
-        transaction.setPaymentMethodType(kakaoPayApproveResponse.getPayment_method_type());
-        transactionRepository.save(transaction);
+    private TransactionResponseDto confirmApproval(Long orderId, KakaoPayApproveResponseDto kakaoPayApproveResponse) {
+        return transactionTemplate.execute(status -> {
+            Transaction transaction = transactionRepository.findByIdForUpdate(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Transaction not found with ID: " + orderId));
+            if (transaction.getStatus() == Transaction.Status.CONFIRMED) {
+                return toConfirmedResponse(transaction);
+            }
 
-        // Calculate ESG Score and Reward Points
-        AppUser user = transaction.getUser();
-        int esgScore = calculateEsgScore(transaction);
-        int pointsEarned = esgScore * POINT_MULTIPLIER;
+            // Update transaction status and KakaoPay details
+            transaction.setStatus(Transaction.Status.CONFIRMED);
+            transaction.setAid(kakaoPayApproveResponse.getAid());
+            transaction.setPaymentMethodType(kakaoPayApproveResponse.getPayment_method_type());
+
+            // Calculate ESG Score and Reward Points
+            AppUser user = transaction.getUser();
+            int esgScore = calculateEsgScore(transaction);
+            int pointsEarned = esgScore * POINT_MULTIPLIER;
+
+            RewardPoint rewardPoint = RewardPoint.builder()
+                    .user(user)
+                    .transaction(transaction)
+                    .points(pointsEarned)
+                    .esgScore(esgScore)
+                    .reason("KakaoPay Transaction reward")
+                    .build();
+            rewardPointRepository.save(rewardPoint);
+
+            // Update user's points
+            int userPoints = accruePoints(user, pointsEarned);
+            publishTransactionRecorded(transaction, esgScore, pointsEarned);
+
+            return toResponse(transaction, esgScore, pointsEarned, userPoints);
+        });
+    }
 
-        RewardPoint rewardPoint = RewardPoint.builder()
-                .user(user)
-                .transaction(transaction)
-                .points(pointsEarned)
-                .esgScore(esgScore)
-                .reason("KakaoPay Transaction reward")
-                .build();
-        rewardPointRepository.save(rewardPoint);
+    /**
+     * Resolves an approve call whose outcome is unknown: a timeout after the request was sent, or the gateway
+     * rejecting a repeat of an approve it already processed. The payment is confirmed if the gateway reports it
+     * paid; otherwise the original failure is rethrown and the transaction stays pending.
+     */
+    private KakaoPayApproveResponseDto approvedAtGateway(KakaoPayApproveRequestDto request, Long orderId, RuntimeException failure) {
+        if (KakaoPayResilienceConfig.isUnsent(failure)) {
+            throw failure;
+        }
+        Optional<KakaoPayApproveResponseDto> approval;
+        try {
+            approval = kakaoPayService.findApproval(request.getTid());
+        } catch (RuntimeException lookupFailure) {
+            failure.addSuppressed(lookupFailure);
+            throw failure;
+        }
+        if (approval.isEmpty()) {
+            throw failure;
+        }
+        log.warn("KakaoPay approve failed for transaction {} but the gateway reports it paid; confirming it", orderId, failure);
+        return approval.get();
+    }
 
-        // Update user's points
-        user.addPoints(pointsEarned);
+    private TransactionResponseDto toConfirmedResponse(Transaction transaction) {
+        RewardPoint rewardPoint = rewardPointRepository.findByTransaction(transaction).orElse(null);
+        return toResponse(transaction,
+                rewardPoint != null ? rewardPoint.getEsgScore() : 0,
+                rewardPoint != null ? rewardPoint.getPoints() : 0,
+                transaction.getUser().getPoints());
+    }
 
+    private TransactionResponseDto toResponse(Transaction transaction, int esgScore, int pointsEarned, int userPoints) {
         // Prepare and Return Response
-        MatchedMerchantDto matchedMerchantDto = (transaction.getMerchant() != null)
-                ? new MatchedMerchantDto(transaction.getMerchant().getId(), transaction.getMerchant().getName(), transaction.getMerchant().getLat(), transaction.getMerchant().getLng())
+        Merchant merchant = transaction.getMerchant();
+        MatchedMerchantDto matchedMerchantDto = (merchant != null)
+                ? new MatchedMerchantDto(merchant.getId(), merchant.getName(), merchant.getLat(), merchant.getLng())
                 : null;
-        
+
         return new TransactionResponseDto(
                 transaction.getId(),
                 matchedMerchantDto,
                 esgScore,
                 pointsEarned,
-                user.getPoints(),
-                (transaction.getMerchant() != null) ? transaction.getMerchant().getEsgTier() : null
+                userPoints,
+                (merchant != null) ? merchant.getEsgTier() : null,
+                transaction.getTxTime()
         );
     }
 
+    /**
+     * Resolves the merchant from the in-memory index; only merchants the index does not know (e.g. before it has
+     * loaded) are read from the database. The returned copy is detached, which is enough to reference it from the
+     * new transaction and to score it.
+     */
     private Merchant matchMerchant(TransactionRequestDto requestDto) {
+        Long merchantId = matchMerchantId(requestDto);
+        if (merchantId == null) {
+            return null;
+        }
+        return merchantGeoIndex.find(merchantId)
+                .or(() -> merchantRepository.findById(merchantId))
+                .orElse(null);
+    }
+
+    private Long matchMerchantId(TransactionRequestDto requestDto) {
         // Priority 1: Use provided merchant_id
         if (requestDto.getMerchantId() != null) {
-            return merchantRepository.findById(requestDto.getMerchantId()).orElse(null);
+            return requestDto.getMerchantId();
         }
-        // Priority 2 & 3 (LBS & Fallback) are complex and will be simplified for now.
-        // In a real scenario, this would involve geospatial queries.
-        // For now, we return null if no ID is provided.
+        // Priority 2: Nearest merchant around the payment location (in-memory geo index)
+        GeoDto geo = requestDto.getGeo();
+        if (geo != null && geo.getLat() != null && geo.getLng() != null) {
+            return merchantGeoIndex.findNearest(geo.getLat().doubleValue(), geo.getLng().doubleValue(), matchRadiusMeters)
+                    .orElse(null);
+        }
+        // Priority 3: No merchant could be matched
         return null;
     }
 
-    private int calculateEsgScore(Transaction transaction) {
-        if (transaction.getMerchant() == null) {
-            return 0; // No merchant, no score
-        }
+    /**
+     * Adds points with one atomic UPDATE (see {@link AppUserRepository#incrementPoints}) and returns the new balance.
+     * The managed {@code user} is left untouched, so its points field is stale afterwards.
+     */
+    int accruePoints(AppUser user, int delta) {
+        appUserRepository.incrementPoints(user.getId(), delta);
+        int points = appUserRepository.findPointsById(user.getId());
+        eventPublisher.publishEvent(new UserPointsChangedEvent(user.getId(), user.getNickname(), delta, points));
+        return points;
+    }
 
+    void publishTransactionRecorded(Transaction transaction, int esgScore, int pointsEarned) {
         Merchant merchant = transaction.getMerchant();
-        AppUser user = transaction.getUser();
-
-        // Base score: floor(10 * log10(amount + 10))
-        double baseScore = Math.floor(10 * Math.log10(transaction.getAmount() + 10));
-
-        // Category weight
-        // In a real app, you\'d cache categories.
-        Optional<Category> categoryOpt = categoryRepository.findById(merchant.getCategoryCode());
-        double weight = categoryOpt.map(Category::getEsgWeight).orElse(1.0);
-
-        // Regional bonus
-        int regionalBonus = 0;
-        if (user.getRegion() != null && user.getRegion().equals(merchant.getRegion())) {
-            regionalBonus = 2;
-        }
-
-        // ESG Tier bonus
-        int tierBonus = 0;
-        switch (merchant.getEsgTier()) {
-            case A: tierBonus = 3; break;
-            case B: tierBonus = 2; break;
-            case C: tierBonus = 1; break;
-            case D: tierBonus = 0; break;
-        }
+        eventPublisher.publishEvent(new TransactionRecordedEvent(
+                transaction.getUser().getId(), transaction.getId(), transaction.getTxTime(), transaction.getAmount(),
+                merchant != null ? merchant.getId() : null,
+                merchant != null ? merchant.getName() : null,
+                merchant != null ? merchant.getCategoryCode() : null,
+                merchant != null ? merchant.getEsgTier() : null,
+                esgScore, pointsEarned));
+    }
 
-        // Final score
-        double finalScore = baseScore * weight + regionalBonus + tierBonus;
-        return (int) Math.round(finalScore);
+    int calculateEsgScore(Transaction transaction) {
+        return esgRuleEngine.score(transaction);
     }
 }
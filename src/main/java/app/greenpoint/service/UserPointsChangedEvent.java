@@ -0,0 +1,10 @@
+package app.greenpoint.service;
+
+/**
+ * Published whenever a user's point balance changes. Listeners are notified after the
+ * surrounding transaction commits.
+ * @param delta  the change applied by this transaction
+ * @param points the balance observed right after the change
+ */
+public record UserPointsChangedEvent(Long userId, String nickname, int delta, int points) {
+}
@@ -1,11 +1,8 @@
 package app.greenpoint.service;
 
 import app.greenpoint.domain.AppUser;
-import app.greenpoint.domain.Merchant;
-import app.greenpoint.domain.RewardPoint;
-import app.greenpoint.domain.Transaction;
 import app.greenpoint.domain.UserBadge;
-import app.greenpoint.dto.MatchedMerchantDto;
+import app.greenpoint.dto.CursorPageDto;
 import app.greenpoint.dto.TransactionResponseDto;
 import app.greenpoint.dto.UserBadgeDto;
 import app.greenpoint.dto.UserProfileDto;
@@ -15,12 +12,13 @@ import app.greenpoint.repository.RewardPointRepository;
 import app.greenpoint.repository.TransactionRepository;
 import app.greenpoint.repository.UserBadgeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -59,36 +57,19 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
-    public List<TransactionResponseDto> getUserTransactionHistory(Long userId) {
+    public CursorPageDto<TransactionResponseDto> getUserTransactionHistory(Long userId, String cursor, int size) {
         AppUser user = appUserRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
 
-        List<Transaction> transactions = transactionRepository.findByUserOrderByTxTimeDesc(user);
-
-        return transactions.stream().map(transaction -> {
-            Merchant merchant = transaction.getMerchant();
-            MatchedMerchantDto matchedMerchantDto = (merchant != null)
-                    ? new MatchedMerchantDto(merchant.getId(), merchant.getName(), merchant.getLat(), merchant.getLng())
-                    : null;
-
-            int esgScore = 0;
-            int pointsEarned = 0;
-
-            Optional<RewardPoint> rewardPointOptional = rewardPointRepository.findByTransaction(transaction);
-            if (rewardPointOptional.isPresent()) {
-                RewardPoint rewardPoint = rewardPointOptional.get();
-                esgScore = rewardPoint.getEsgScore();
-                pointsEarned = rewardPoint.getPoints();
-            }
-
-            return new TransactionResponseDto(
-                    transaction.getId(),
-                    matchedMerchantDto,
-                    esgScore,
-                    pointsEarned,
-                    user.getPoints(), // Current user points, not points at time of transaction
-                    (merchant != null) ? merchant.getEsgTier() : null
-            );
-        }).collect(Collectors.toList());
+        // Keyset pagination on (tx_time, tx_id); userPoints is the current balance, not the balance at the time
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionResponseDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findResponsePage(user.getId(), limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findResponsePageAfter(user.getId(), after.txTime(), after.txId(), limit);
+        }
+        return CursorPageDto.of(rows, size, row -> new TransactionCursor(row.getTxTime(), row.getTxId()).encode());
     }
 }
@@ -0,0 +1,151 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.EsgRule;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EsgRuleEngineTest {
+
+    private EsgRuleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new EsgRuleEngine(null, null);
+        engine.install(List.of());
+    }
+
+    @Test
+    void score_withoutRules_shouldMatchBuiltInFormula() {
+        for (Merchant.EsgTier tier : Merchant.EsgTier.values()) {
+            for (int amount : new int[]{0, 990, 15_800, 1_000_000}) {
+                EsgFacts facts = facts(amount, tier, "Seoul", "Seoul", 1.2);
+
+                int tierBonus = switch (tier) { case A -> 3; case B -> 2; case C -> 1; case D -> 0; };
+                long expected = Math.round(Math.floor(10 * Math.log10(amount + 10)) * 1.2 + 2 + tierBonus);
+
+                assertEquals(expected, engine.score(facts));
+            }
+        }
+    }
+
+    @Test
+    void compileFormula_shouldRespectPrecedenceAndFunctions() {
+        EsgFacts facts = facts(990, Merchant.EsgTier.A, "Seoul", "Busan", 1.0);
+
+        assertEquals(7.0, EsgRuleCompiler.compileFormula("1 + 2 * 3").apply(facts, 0));
+        assertEquals(9.0, EsgRuleCompiler.compileFormula("(1 + 2) * 3").apply(facts, 0));
+        assertEquals(-5.0, EsgRuleCompiler.compileFormula("-(2 + 3)").apply(facts, 0));
+        assertEquals(6.0, EsgRuleCompiler.compileFormula("max(score, 10) / 2 - 1").apply(facts, 14));
+        assertEquals(30.0, EsgRuleCompiler.compileFormula("floor(log10(amount + 10) * 10)").apply(facts, 0));
+        assertEquals(33.0, EsgRuleCompiler.compileFormula("baseScore * weight + regionalBonus + tierBonus").apply(facts, 0));
+    }
+
+    @Test
+    void compileCondition_shouldEvaluateNestedTree() {
+        EsgRuleCompiler.Condition condition = EsgRuleCompiler.compileCondition("""
+                {"all": [
+                  {"field": "tier", "op": "in", "value": ["A", "B"]},
+                  {"any": [{"field": "amount", "op": "gte", "value": 10000}, {"field": "sameRegion", "value": true}]},
+                  {"not": {"field": "category", "value": "FUEL"}}
+                ]}""");
+
+        assertTrue(condition.test(facts(15_000, Merchant.EsgTier.B, "Seoul", "Busan", 1.0)));
+        assertTrue(condition.test(facts(500, Merchant.EsgTier.A, "Seoul", "Seoul", 1.0)));
+        assertFalse(condition.test(facts(500, Merchant.EsgTier.A, "Seoul", "Busan", 1.0)));
+        assertFalse(condition.test(facts(15_000, Merchant.EsgTier.C, "Seoul", "Busan", 1.0)));
+        assertTrue(EsgRuleCompiler.compileCondition(null).test(facts(0, Merchant.EsgTier.D, null, null, 1.0)));
+    }
+
+    @Test
+    void install_shouldChainMatchingRulesInOrderAndSkipInvalidOnes() {
+        engine.install(List.of(
+                rule(1L, "{\"field\": \"tier\", \"value\": \"A\"}", "score + 10"),
+                rule(2L, "{\"type\": \"VISIT_COUNT\", \"count\": 5}", "score * 100"),
+                rule(3L, null, "score * 2"),
+                rule(4L, "{\"field\": \"amount\", \"op\": \"lt\", \"value\": 0}", "0")));
+
+        EsgFacts facts = facts(990, Merchant.EsgTier.A, "Seoul", "Busan", 1.0);
+
+        assertEquals(3, engine.activeRuleCount());
+        assertEquals((33 + 10) * 2, engine.score(facts));
+        assertEquals(32 * 2, engine.score(facts(990, Merchant.EsgTier.B, "Seoul", "Busan", 1.0)));
+    }
+
+    @Test
+    void score_shouldIgnoreNonFiniteFormulaResultsAndClampLargeOnes() {
+        engine.install(List.of(
+                rule(1L, null, "score + 10"),
+                rule(2L, null, "score / 0"),
+                rule(3L, "{\"field\": \"tier\", \"value\": \"A\"}", "log10(0)"),
+                rule(4L, "{\"field\": \"tier\", \"value\": \"B\"}", "score * 1000000000")));
+
+        assertEquals(33 + 10, engine.score(facts(990, Merchant.EsgTier.A, "Seoul", "Busan", 1.0)));
+        assertEquals(EsgRuleEngine.MAX_SCORE, engine.score(facts(990, Merchant.EsgTier.B, "Seoul", "Busan", 1.0)));
+    }
+
+    @Test
+    void scoreTransaction_withRules_shouldRefillFactsForEveryTransaction() {
+        EsgRuleEngine withCatalog = new EsgRuleEngine(null, new CategoryCatalog(emptyCategories()));
+        withCatalog.install(List.of(rule(1L, "{\"field\": \"sameRegion\", \"value\": true}", "score + amount / 100")));
+
+        Transaction local = transaction(990, Merchant.EsgTier.A, "Seoul", "Seoul");
+        Transaction remote = transaction(15_800, Merchant.EsgTier.C, "Seoul", "Busan");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(withCatalog.score(EsgFacts.of(local, 1.0)), withCatalog.score(local));
+            assertEquals(withCatalog.score(EsgFacts.of(remote, 1.0)), withCatalog.score(remote));
+        }
+        assertEquals(33 + 2 + 9.9, withCatalog.score(local), 0.5);
+    }
+
+    @Test
+    void validate_shouldRejectMalformedRules() {
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(null, "score +"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(null, "visits * 2"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(null, "pow(score, 2)"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(null, " "));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate("{not json", "score"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate("{\"field\": \"visits\", \"value\": 1}", "score"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate("{\"field\": \"tier\", \"value\": \"Z\"}", "score"));
+        assertThrows(IllegalArgumentException.class, () -> engine.validate("{\"field\": \"tier\", \"op\": \"gt\", \"value\": \"A\"}", "score"));
+        engine.validate("{\"field\": \"hour\", \"op\": \"in\", \"value\": [7, 8, 9]}", "min(score, 50)");
+    }
+
+    private static EsgFacts facts(int amount, Merchant.EsgTier tier, String merchantRegion, String userRegion, double weight) {
+        return EsgFacts.of(transaction(amount, tier, merchantRegion, userRegion), weight);
+    }
+
+    private static Transaction transaction(int amount, Merchant.EsgTier tier, String merchantRegion, String userRegion) {
+        Merchant merchant = Merchant.builder().id(7L).categoryCode("CAFE").region(merchantRegion).esgTier(tier).build();
+        AppUser user = AppUser.builder().id(1L).region(userRegion).build();
+        return Transaction.builder().user(user).merchant(merchant).amount(amount)
+                .txTime(LocalDateTime.of(2025, 10, 31, 12, 30)).source(Transaction.Source.MOCK).build();
+    }
+
+    private static CategoryRepository emptyCategories() {
+        return (CategoryRepository) Proxy.newProxyInstance(CategoryRepository.class.getClassLoader(),
+                new Class<?>[]{CategoryRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAll")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return List.of();
+                });
+    }
+
+    private static EsgRule rule(Long id, String conditionJson, String scoreFormula) {
+        return EsgRule.builder().id(id).name("rule-" + id).conditionJson(conditionJson).scoreFormula(scoreFormula).build();
+    }
+}
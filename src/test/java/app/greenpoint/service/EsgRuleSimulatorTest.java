@@ -0,0 +1,132 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.EsgRule;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.EsgSimulationRequestDto;
+import app.greenpoint.repository.TransactionRepository;
+import app.greenpoint.repository.TransactionRepositoryCustom.ScoringRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EsgRuleSimulatorTest {
+
+    private static final EsgRuleEngine.CompiledRule[] NO_RULES = new EsgRuleEngine.CompiledRule[0];
+
+    @Test
+    void replay_shouldAttributeWeightChangeToCategoryOnly() {
+        EsgRuleSimulator.Scenario scenario = new EsgRuleSimulator.Scenario(NO_RULES, NO_RULES, code -> 1.0, Map.of("CAFE", 2.0));
+        EsgRuleSimulator.Tally tally = new EsgRuleSimulator.Tally();
+
+        scenario.replay(row(1, 990, "CAFE", Merchant.EsgTier.A, "Seoul"), tally);   // base 30: 33 -> 63
+        scenario.replay(row(2, 990, "FUEL", Merchant.EsgTier.D, "Busan"), tally);   // 30 -> 30
+
+        assertEquals(2, tally.total.count);
+        assertEquals(1, tally.total.increased);
+        assertEquals((33 + 30) * 10, tally.total.currentPoints);
+        assertEquals((63 + 30) * 10, tally.total.candidatePoints);
+        assertEquals(30, tally.byCategory.get("CAFE").scoreDeltaSum);
+        assertEquals(0, tally.byCategory.get("FUEL").scoreDeltaSum);
+        assertEquals(0, tally.byTier.get("D").increased);
+        assertEquals(1, tally.byRegion.get("Seoul").count);
+    }
+
+    @Test
+    void replay_shouldApplyCandidateRules() {
+        EsgRuleEngine.CompiledRule[] candidate = EsgRuleEngine.compileAll(List.of(
+                EsgRule.builder().name("tier A").conditionJson("{\"field\": \"tier\", \"value\": \"A\"}").scoreFormula("score + 10").build()));
+        EsgRuleSimulator.Scenario scenario = new EsgRuleSimulator.Scenario(NO_RULES, candidate, code -> 1.0, Map.of());
+        EsgRuleSimulator.Tally left = new EsgRuleSimulator.Tally();
+        EsgRuleSimulator.Tally right = new EsgRuleSimulator.Tally();
+
+        scenario.replay(row(1, 990, "CAFE", Merchant.EsgTier.A, "Seoul"), left);
+        scenario.replay(row(2, 990, "CAFE", null, "Seoul"), right);
+        EsgRuleSimulator.Tally merged = left.merge(right);
+
+        assertEquals(2, merged.byCategory.get("CAFE").count);
+        assertEquals(10, merged.byTier.get("A").scoreDeltaSum);
+        assertEquals(0, merged.byTier.get(EsgRuleSimulator.NONE).scoreDeltaSum);
+        assertEquals(100, merged.total.candidatePoints - merged.total.currentPoints);
+    }
+
+    @Test
+    void compileAll_shouldRejectInvalidCandidateRule() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> EsgRuleEngine.compileAll(List.of(
+                EsgRule.builder().name("broken").scoreFormula("score +").build())));
+        assertTrue(e.getMessage().startsWith("Rule 'broken'"));
+    }
+
+    @Test
+    void deltaStats_shouldReportPercentilesAndClampOutliers() {
+        EsgRuleSimulator.DeltaStats stats = new EsgRuleSimulator.DeltaStats();
+        for (int delta = 1; delta <= 100; delta++) {
+            stats.add(50, 50 + delta);
+        }
+        stats.add(0, 500);
+
+        assertEquals(1, stats.minDelta);
+        assertEquals(500, stats.maxDelta);
+        assertEquals(11, stats.percentile(0.1));
+        assertEquals(51, stats.percentile(0.5));
+        assertEquals(91, stats.percentile(0.9));
+        assertEquals(100, stats.percentile(1.0)); // The outlier shares the clamped edge bucket
+        assertEquals(0, new EsgRuleSimulator.DeltaStats().percentile(0.5));
+    }
+
+    @Test
+    void simulate_shouldRefuseWhileAnotherSimulationIsRunning() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionRepository transactions = (TransactionRepository) Proxy.newProxyInstance(
+                TransactionRepository.class.getClassLoader(), new Class<?>[]{TransactionRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findConfirmedIdRange")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    scanning.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.empty();
+                });
+        EsgRuleEngine engine = new EsgRuleEngine(null, null);
+        engine.install(List.of());
+        EsgRuleSimulator simulator = new EsgRuleSimulator(transactions, new CategoryCatalog(null), engine);
+        ReflectionTestUtils.setField(simulator, "parallelism", 2);
+        ReflectionTestUtils.setField(simulator, "maxConcurrent", 1);
+        simulator.start();
+        try {
+            EsgSimulationRequestDto request = new EsgSimulationRequestDto();
+            request.setFrom(LocalDate.of(2025, 10, 1));
+            request.setTo(LocalDate.of(2025, 10, 31));
+
+            CompletableFuture<?> first = CompletableFuture.runAsync(() -> simulator.simulate(request));
+            assertTrue(scanning.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> simulator.simulate(request));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(0, simulator.simulate(request).getTotal().getTransactions());
+        } finally {
+            simulator.stop();
+        }
+    }
+
+    private static ScoringRow row(long txId, int amount, String categoryCode, Merchant.EsgTier tier, String merchantRegion) {
+        return new ScoringRow(txId, 1L, amount, LocalDateTime.of(2025, 10, 31, 12, 30), Transaction.Source.MOCK,
+                7L, categoryCode, merchantRegion, tier, "Incheon");
+    }
+}
@@ -0,0 +1,49 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EsgScoreKernelTest {
+
+    @Test
+    void baseScore_shouldMatchLog10AcrossSmallAmounts() {
+        for (int amount = -9; amount <= 2_000_000; amount++) {
+            assertEquals(reference(amount), EsgScoreKernel.baseScore(amount), "amount " + amount);
+        }
+    }
+
+    @Test
+    void baseScore_shouldMatchLog10AroundEveryStep() {
+        for (int step = 11; step <= 93; step++) {
+            long threshold = (long) Math.ceil(Math.pow(10, step / 10.0)) - 10;
+            for (long amount = Math.max(0, threshold - 50); amount <= Math.min(Integer.MAX_VALUE, threshold + 50); amount++) {
+                assertEquals(reference((int) amount), EsgScoreKernel.baseScore((int) amount), "amount " + amount);
+            }
+        }
+        assertEquals(reference(Integer.MAX_VALUE - 10), EsgScoreKernel.baseScore(Integer.MAX_VALUE - 10));
+    }
+
+    @Test
+    void score_shouldMatchBuiltInFormula() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int amount = random.nextInt(50_000_000);
+            double weight = random.nextInt(30) / 10.0;
+            Merchant.EsgTier tier = random.nextInt(5) == 0 ? null : Merchant.EsgTier.values()[random.nextInt(4)];
+            boolean sameRegion = random.nextBoolean();
+
+            int tierBonus = tier == null ? 0 : switch (tier) { case A -> 3; case B -> 2; case C -> 1; case D -> 0; };
+            long expected = Math.round(reference(amount) * weight + (sameRegion ? 2 : 0) + tierBonus);
+
+            assertEquals(expected, EsgScoreKernel.score(amount, weight, EsgScoreKernel.tierOrdinal(tier), sameRegion));
+        }
+    }
+
+    private static double reference(int amount) {
+        return Math.floor(10 * Math.log10(amount + 10.0));
+    }
+}
@@ -1,58 +1,152 @@
 package app.greenpoint.service;
 
+import app.greenpoint.config.KakaoPayClientConfig;
+import app.greenpoint.config.KakaoPayResilienceConfig;
 import app.greenpoint.dto.kakaopay.KakaoPayApproveRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayApproveResponseDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyRequestDto;
 import app.greenpoint.dto.kakaopay.KakaoPayReadyResponseDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@ExtendWith(MockitoExtension.class)
+/**
+ * Exercises KakaoPayService over real HTTP against a local stub of the gateway.
+ */
 class KakaoPayServiceTest {
 
-    @Mock
-    private RestTemplate restTemplate;
-
-    @InjectMocks
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ConnectionProvider connectionProvider;
     private KakaoPayService kakaoPayService;
+    private Bulkhead bulkhead;
+    private CircuitBreaker circuitBreaker;
+    private final CountDownLatch hangRelease = new CountDownLatch(1);
+
+    private final Map<String, String> requestBodies = new ConcurrentHashMap<>();
+    private final Map<String, String> authorizationHeaders = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
 
     private String secretKey = "test-secret-key";
     private String cid = "test-cid";
-    private String readyUrl = "http://test-ready-url.com";
-    private String approveUrl = "http://test-approve-url.com";
     private String redirectHost = "http://test-redirect-host.com";
     private String approvalPath = "/approval";
     private String cancelPath = "/cancel";
     private String failPath = "/fail";
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        handle("/ready", exchange -> respond(exchange, 200,
+                "{\"tid\":\"tid123\",\"next_redirect_pc_url\":\"http://redirect.url\"}"));
+        handle("/approve", exchange -> respond(exchange, 200,
+                "{\"aid\":\"aid123\",\"tid\":\"tid123\"}"));
+        handle("/slow", exchange -> {
+            sleep(5_000);
+            respond(exchange, 200, "{}");
+        });
+        handle("/error", exchange -> respond(exchange, 400, "{\"error_code\":-780}"));
+        handle("/unavailable", exchange -> respond(exchange, 503, "{}"));
+        handle("/flaky", exchange -> {
+            if (hitCount("/flaky") == 1) {
+                respond(exchange, 503, "{}");
+            } else {
+                respond(exchange, 200, "{\"aid\":\"aid123\",\"tid\":\"tid123\"}");
+            }
+        });
+        handle("/order", exchange -> respond(exchange, 200,
+                "{\"tid\":\"tid123\",\"status\":\"SUCCESS_PAYMENT\",\"payment_method_type\":\"MONEY\","
+                        + "\"payment_action_details\":[{\"aid\":\"aid123\",\"payment_action_type\":\"PAYMENT\"}]}"));
+        handle("/order-ready", exchange -> respond(exchange, 200, "{\"tid\":\"tid123\",\"status\":\"READY\"}"));
+        handle("/hang", exchange -> {
+            awaitQuietly(hangRelease);
+            respond(exchange, 200, "{}");
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        connectionProvider = ConnectionProvider.builder("kakaopay-test").maxConnections(4).build();
+        WebClient webClient = KakaoPayClientConfig.buildWebClient(WebClient.builder(), connectionProvider,
+                Duration.ofSeconds(1), Duration.ofSeconds(2));
+        bulkhead = Bulkhead.of("kakaopay-test", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        circuitBreaker = CircuitBreaker.of("kakaopay-test", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .recordException(KakaoPayResilienceConfig::isGatewayFailure)
+                .build());
+        Retry approveRetry = Retry.of("kakaopay-approve-test", RetryConfig.custom()
+                .maxAttempts(2)
+                .waitDuration(Duration.ofMillis(10))
+                .retryOnException(KakaoPayResilienceConfig::isUnsent)
+                .build());
+        Retry orderRetry = Retry.of("kakaopay-order-test", RetryConfig.custom()
+                .maxAttempts(2)
+                .waitDuration(Duration.ofMillis(10))
+                .retryOnException(KakaoPayResilienceConfig::isGatewayFailure)
+                .build());
+        kakaoPayService = new KakaoPayService(webClient, bulkhead, circuitBreaker, approveRetry, orderRetry);
+
         ReflectionTestUtils.setField(kakaoPayService, "secretKey", secretKey);
         ReflectionTestUtils.setField(kakaoPayService, "cid", cid);
-        ReflectionTestUtils.setField(kakaoPayService, "readyUrl", readyUrl);
-        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", approveUrl);
+        ReflectionTestUtils.setField(kakaoPayService, "readyUrl", baseUrl() + "/ready");
+        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", baseUrl() + "/approve");
+        ReflectionTestUtils.setField(kakaoPayService, "orderUrl", baseUrl() + "/order");
         ReflectionTestUtils.setField(kakaoPayService, "redirectHost", redirectHost);
         ReflectionTestUtils.setField(kakaoPayService, "approvalPath", approvalPath);
         ReflectionTestUtils.setField(kakaoPayService, "cancelPath", cancelPath);
         ReflectionTestUtils.setField(kakaoPayService, "failPath", failPath);
     }
 
+    @AfterEach
+    void tearDown() {
+        hangRelease.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        connectionProvider.dispose();
+    }
+
     @Test
     void readyPayment_shouldReturnKakaoPayReadyResponseDto() {
         // Given
@@ -64,27 +158,22 @@ class KakaoPayServiceTest {
         requestDto.setTotal_amount(1000);
         requestDto.setTax_free_amount(0);
 
-        KakaoPayReadyResponseDto expectedResponse = new KakaoPayReadyResponseDto();
-        expectedResponse.setTid("tid123");
-        expectedResponse.setNext_redirect_pc_url("http://redirect.url");
-
-        when(restTemplate.postForObject(eq(readyUrl), any(HttpEntity.class), eq(KakaoPayReadyResponseDto.class)))
-                .thenReturn(expectedResponse);
-
         // When
         KakaoPayReadyResponseDto actualResponse = kakaoPayService.readyPayment(requestDto);
 
         // Then
         assertNotNull(actualResponse);
-        assertEquals(expectedResponse.getTid(), actualResponse.getTid());
-        assertEquals(expectedResponse.getNext_redirect_pc_url(), actualResponse.getNext_redirect_pc_url());
+        assertEquals("tid123", actualResponse.getTid());
+        assertEquals("http://redirect.url", actualResponse.getNext_redirect_pc_url());
 
         assertEquals(cid, requestDto.getCid());
         assertEquals(redirectHost + approvalPath, requestDto.getApproval_url());
         assertEquals(redirectHost + cancelPath, requestDto.getCancel_url());
         assertEquals(redirectHost + failPath, requestDto.getFail_url());
 
-        verify(restTemplate).postForObject(eq(readyUrl), any(HttpEntity.class), eq(KakaoPayReadyResponseDto.class));
+        assertEquals("SECRET_KEY " + secretKey, authorizationHeaders.get("/ready"));
+        assertTrue(requestBodies.get("/ready").contains("\"cid\":\"" + cid + "\""));
+        assertTrue(requestBodies.get("/ready").contains("\"partner_order_id\":\"order123\""));
     }
 
     @Test
@@ -96,23 +185,163 @@ class KakaoPayServiceTest {
         requestDto.setPartner_user_id("user123");
         requestDto.setPg_token("pgtoken123");
 
-        KakaoPayApproveResponseDto expectedResponse = new KakaoPayApproveResponseDto();
-        expectedResponse.setAid("aid123");
-        expectedResponse.setTid("tid123");
-
-        when(restTemplate.postForObject(eq(approveUrl), any(HttpEntity.class), eq(KakaoPayApproveResponseDto.class)))
-                .thenReturn(expectedResponse);
-
         // When
-        KakaoPayApproveResponseDto actualResponse = kakaoPayService.approvePayment(requestDto);
+        KakaoPayApproveResponseDto actualResponse = kakaoPayService.approvePaymentAsync(requestDto).block();
 
         // Then
         assertNotNull(actualResponse);
-        assertEquals(expectedResponse.getAid(), actualResponse.getAid());
-        assertEquals(expectedResponse.getTid(), actualResponse.getTid());
+        assertEquals("aid123", actualResponse.getAid());
+        assertEquals("tid123", actualResponse.getTid());
 
         assertEquals(cid, requestDto.getCid());
+        assertTrue(requestBodies.get("/approve").contains("\"pg_token\":\"pgtoken123\""));
+    }
+
+    @Test
+    void approvePayment_shouldNotResendTimedOutApprove() {
+        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", baseUrl() + "/slow");
+
+        WebClientRequestException e = assertThrows(WebClientRequestException.class,
+                () -> kakaoPayService.approvePayment(new KakaoPayApproveRequestDto()));
+
+        assertInstanceOf(ReadTimeoutException.class, e.getCause());
+        assertEquals(1, hitCount("/slow"));
+    }
+
+    @Test
+    void approvePayment_shouldSurfaceGatewayErrors() {
+        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", baseUrl() + "/error");
+
+        WebClientResponseException e = assertThrows(WebClientResponseException.class,
+                () -> kakaoPayService.approvePayment(new KakaoPayApproveRequestDto()));
+
+        assertEquals(400, e.getStatusCode().value());
+        assertEquals(1, hitCount("/error"));
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void approvePayment_shouldNotResendAfterServerError() {
+        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", baseUrl() + "/flaky");
+
+        assertThrows(WebClientResponseException.class,
+                () -> kakaoPayService.approvePayment(new KakaoPayApproveRequestDto()));
+
+        assertEquals(1, hitCount("/flaky"));
+    }
+
+    @Test
+    void approvePayment_shouldRetryWhenConnectionCannotBeOpened() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        ReflectionTestUtils.setField(kakaoPayService, "approveUrl", "http://127.0.0.1:" + closedPort + "/approve");
+
+        WebClientRequestException e = assertThrows(WebClientRequestException.class,
+                () -> kakaoPayService.approvePayment(new KakaoPayApproveRequestDto()));
+
+        assertTrue(KakaoPayResilienceConfig.isUnsent(e));
+        assertEquals(1, kakaoPayService.resilienceStats().getApproveFailedAfterRetry());
+    }
+
+    @Test
+    void findApproval_shouldReturnApprovalOfPaidOrder() {
+        KakaoPayApproveResponseDto approval = kakaoPayService.findApproval("tid123").orElseThrow();
+
+        assertEquals("aid123", approval.getAid());
+        assertEquals("MONEY", approval.getPayment_method_type());
+        assertTrue(requestBodies.get("/order").contains("\"tid\":\"tid123\""));
+        assertTrue(requestBodies.get("/order").contains("\"cid\":\"" + cid + "\""));
+    }
+
+    @Test
+    void findApproval_shouldBeEmptyForUnpaidOrder() {
+        ReflectionTestUtils.setField(kakaoPayService, "orderUrl", baseUrl() + "/order-ready");
+
+        assertTrue(kakaoPayService.findApproval("tid123").isEmpty());
+    }
+
+    @Test
+    void readyPayment_shouldNotRetryServerErrors() {
+        ReflectionTestUtils.setField(kakaoPayService, "readyUrl", baseUrl() + "/unavailable");
+
+        assertThrows(WebClientResponseException.class,
+                () -> kakaoPayService.readyPayment(new KakaoPayReadyRequestDto()));
+
+        assertEquals(1, hitCount("/unavailable"));
+    }
+
+    @Test
+    void circuitBreaker_shouldRejectCallsOnceGatewayKeepsFailing() {
+        ReflectionTestUtils.setField(kakaoPayService, "readyUrl", baseUrl() + "/unavailable");
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.class,
+                    () -> kakaoPayService.readyPayment(new KakaoPayReadyRequestDto()));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class,
+                () -> kakaoPayService.readyPayment(new KakaoPayReadyRequestDto()));
+        assertEquals(4, hitCount("/unavailable"));
+        assertEquals("OPEN", kakaoPayService.resilienceStats().getCircuitState());
+    }
+
+    @Test
+    void bulkhead_shouldRejectCallsBeyondConcurrencyLimit() throws InterruptedException {
+        ReflectionTestUtils.setField(kakaoPayService, "readyUrl", baseUrl() + "/hang");
+        kakaoPayService.readyPaymentAsync(new KakaoPayReadyRequestDto()).subscribe(r -> { }, e -> { });
+        while (bulkhead.getMetrics().getAvailableConcurrentCalls() > 0) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(BulkheadFullException.class,
+                () -> kakaoPayService.readyPayment(new KakaoPayReadyRequestDto()));
+        assertEquals(0, hitCount("/ready"));
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(String path, HttpHandler handler) {
+        server.createContext(path, exchange -> {
+            hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            handler.handle(exchange);
+        });
+    }
+
+    private int hitCount(String path) {
+        AtomicInteger count = hits.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        String path = exchange.getHttpContext().getPath();
+        requestBodies.put(path, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        authorizationHeaders.put(path, String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        verify(restTemplate).postForObject(eq(approveUrl), any(HttpEntity.class), eq(KakaoPayApproveResponseDto.class));
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
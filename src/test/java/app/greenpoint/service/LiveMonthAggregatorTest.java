@@ -0,0 +1,200 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.ReportResponseDto;
+import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LiveMonthAggregatorTest {
+
+    @Test
+    void add_shouldCountEachTransactionOnce() {
+        LiveMonthAggregator.UserMonth month = new LiveMonthAggregator.UserMonth();
+        LiveMonthAggregator.TxContribution tx = new LiveMonthAggregator.TxContribution(1L, 1000, 10L, "eco", "ECO", true, 4, 40);
+
+        month.seed(List.of(tx));
+        month.add(tx);
+
+        ReportResponseDto report = month.toReport("2025-10");
+        assertEquals(1000, report.getTotalSpend());
+        assertEquals(4, report.getEsgScoreTotal());
+        assertEquals(1, report.getTopMerchants().get(0).getVisits());
+    }
+
+    @Test
+    void toReport_shouldAggregateCategoriesMerchantsAndGreenMerchants() {
+        LiveMonthAggregator.UserMonth month = new LiveMonthAggregator.UserMonth();
+        month.seed(List.of(
+                new LiveMonthAggregator.TxContribution(1L, 1000, 10L, "eco", "ECO", true, 4, 40),
+                new LiveMonthAggregator.TxContribution(2L, 2000, 10L, "eco", "ECO", true, 4, 40),
+                new LiveMonthAggregator.TxContribution(3L, 500, 20L, "mart", "FOOD", false, 1, 10),
+                new LiveMonthAggregator.TxContribution(4L, 300, null, null, null, false, 0, 0)));
+        for (long i = 0; i < 6; i++) {
+            month.add(new LiveMonthAggregator.TxContribution(100 + i, 100, 30 + i, "m" + i, "FOOD", false, 0, (int) i));
+        }
+
+        ReportResponseDto report = month.toReport("2025-10");
+
+        assertEquals(4400, report.getTotalSpend());
+        assertEquals(9, report.getEsgScoreTotal());
+        assertEquals(0.45, report.getCarbonSavedKg(), 1e-9);
+        assertEquals(1, report.getGreenMerchantsUsed());
+        assertEquals("ECO", report.getCategoryBreakdown().get(0).getCode());
+        assertEquals(2, report.getCategoryBreakdown().get(0).getCount());
+        assertEquals(80, report.getCategoryBreakdown().get(0).getPoints());
+        assertEquals(7, report.getCategoryBreakdown().get(1).getCount());
+        assertEquals(5, report.getTopMerchants().size());
+        assertEquals("eco", report.getTopMerchants().get(0).getName());
+        assertEquals(2, report.getTopMerchants().get(0).getVisits());
+    }
+
+    @Test
+    void onTransactionRecorded_shouldIgnoreUsersWithoutAggregate() {
+        LiveMonthAggregator aggregator = new LiveMonthAggregator(null, null);
+
+        aggregator.onTransactionRecorded(new TransactionRecordedEvent(1L, 1L, LocalDateTime.now(), 1000,
+                10L, "eco", "ECO", Merchant.EsgTier.A, 4, 40));
+
+        assertEquals(0, aggregator.trackedUsers());
+    }
+
+    @Test
+    void report_shouldCountTransactionSeededWhilePendingOnceConfirmed() {
+        List<Row> table = new ArrayList<>();
+        table.add(new Row(1L, 1000, Transaction.Status.CONFIRMED, 4, 40));
+        table.add(new Row(2L, 3000, Transaction.Status.PENDING, 0, 0)); // e.g. a KakaoPay payment awaiting approval
+        LiveMonthAggregator aggregator = new LiveMonthAggregator(transactionsIn(table), existingUsers());
+
+        ReportResponseDto beforeApproval = aggregator.report(7L);
+
+        assertEquals(1000, beforeApproval.getTotalSpend());
+        assertEquals(4, beforeApproval.getEsgScoreTotal());
+
+        table.set(1, new Row(2L, 3000, Transaction.Status.CONFIRMED, 6, 60));
+        aggregator.onTransactionRecorded(new TransactionRecordedEvent(7L, 2L, LocalDateTime.now(), 3000,
+                10L, "eco", "ECO", Merchant.EsgTier.A, 6, 60));
+        ReportResponseDto afterApproval = aggregator.report(7L);
+
+        assertEquals(4000, afterApproval.getTotalSpend());
+        assertEquals(10, afterApproval.getEsgScoreTotal());
+        assertEquals(100, afterApproval.getCategoryBreakdown().get(0).getPoints());
+        assertEquals(2, afterApproval.getTopMerchants().get(0).getVisits());
+    }
+
+    @Test
+    void report_shouldIncludeAsyncSubmissionsOnceTheRewardWorkerAwardsThem() {
+        // reward.pipeline.async: submissions are stored PENDING and the first read comes before the worker runs
+        List<Row> table = new ArrayList<>();
+        table.add(new Row(1L, 2000, Transaction.Status.PENDING, 0, 0));
+        table.add(new Row(2L, 1000, Transaction.Status.PENDING, 0, 0));
+        LiveMonthAggregator aggregator = new LiveMonthAggregator(transactionsIn(table), existingUsers());
+
+        assertEquals(0, aggregator.report(7L).getTotalSpend());
+
+        // The worker awards both in one batch; its events are delivered after the batch commits
+        table.replaceAll(row -> new Row(row.txId(), row.amount(), Transaction.Status.CONFIRMED, 5, 50));
+        for (Row row : table) {
+            aggregator.onTransactionRecorded(new TransactionRecordedEvent(7L, row.txId(), LocalDateTime.now(), row.amount(),
+                    10L, "eco", "ECO", Merchant.EsgTier.A, 5, 50));
+        }
+        ReportResponseDto report = aggregator.report(7L);
+
+        assertEquals(3000, report.getTotalSpend());
+        assertEquals(10, report.getEsgScoreTotal());
+        assertEquals(100, report.getTopMerchants().get(0).getPoints());
+        assertEquals(1, report.getGreenMerchantsUsed());
+    }
+
+    @Test
+    void add_shouldStopTrackingIdsAfterDedupeWindow() {
+        AtomicLong now = new AtomicLong();
+        LiveMonthAggregator.UserMonth month = new LiveMonthAggregator.UserMonth(now::get);
+        LiveMonthAggregator.TxContribution seeded = new LiveMonthAggregator.TxContribution(1L, 1000, 10L, "eco", "ECO", true, 4, 40);
+        month.seed(List.of(seeded));
+
+        month.add(seeded); // event racing the seed query
+        now.addAndGet(LiveMonthAggregator.UserMonth.DEDUPE_WINDOW_NANOS + 1);
+        month.add(new LiveMonthAggregator.TxContribution(2L, 500, 10L, "eco", "ECO", true, 2, 20));
+
+        ReportResponseDto report = month.toReport("2025-10");
+        assertEquals(1500, report.getTotalSpend());
+        assertEquals(6, report.getEsgScoreTotal());
+    }
+
+    private record Row(long txId, int amount, Transaction.Status status, int esgScore, int points) {
+    }
+
+    private static TransactionRepository transactionsIn(List<Row> table) {
+        return (TransactionRepository) Proxy.newProxyInstance(TransactionRepository.class.getClassLoader(),
+                new Class<?>[]{TransactionRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findContributions")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return table.stream().filter(row -> row.status() == args[1]).map(LiveMonthAggregatorTest::contribution).toList();
+                });
+    }
+
+    private static AppUserRepository existingUsers() {
+        return (AppUserRepository) Proxy.newProxyInstance(AppUserRepository.class.getClassLoader(),
+                new Class<?>[]{AppUserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("existsById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return true;
+                });
+    }
+
+    private static TransactionRepository.ContributionView contribution(Row row) {
+        return new TransactionRepository.ContributionView() {
+            @Override
+            public Long getTxId() {
+                return row.txId();
+            }
+
+            @Override
+            public int getAmount() {
+                return row.amount();
+            }
+
+            @Override
+            public Long getMerchantId() {
+                return 10L;
+            }
+
+            @Override
+            public String getMerchantName() {
+                return "eco";
+            }
+
+            @Override
+            public String getCategoryCode() {
+                return "ECO";
+            }
+
+            @Override
+            public Merchant.EsgTier getEsgTier() {
+                return Merchant.EsgTier.A;
+            }
+
+            @Override
+            public int getEsgScore() {
+                return row.esgScore();
+            }
+
+            @Override
+            public int getPoints() {
+                return row.points();
+            }
+        };
+    }
+}
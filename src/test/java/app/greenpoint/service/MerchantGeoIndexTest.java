@@ -0,0 +1,145 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.dto.AdminMerchantDto;
+import app.greenpoint.repository.MerchantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MerchantGeoIndexTest {
+
+    private MerchantGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MerchantGeoIndex(null);
+        index.put(1L, 37.336607, 127.251652);
+        index.put(2L, 37.335523, 127.258628);
+        index.put(3L, 37.336220, 127.254950);
+    }
+
+    @Test
+    void findNearest_shouldReturnClosestMerchantWithinRadius() {
+        Optional<Long> nearest = index.findNearest(37.33625, 127.25500, 150);
+
+        assertEquals(Optional.of(3L), nearest);
+    }
+
+    @Test
+    void findNearest_shouldReturnEmptyWhenNothingInRadius() {
+        Optional<Long> nearest = index.findNearest(37.5665, 126.9780, 150);
+
+        assertTrue(nearest.isEmpty());
+    }
+
+    @Test
+    void findNearest_shouldSearchAcrossCellBoundaries() {
+        index.put(4L, 37.3999, 127.2999);
+
+        Optional<Long> nearest = index.findNearest(37.4001, 127.3001, 100);
+
+        assertEquals(Optional.of(4L), nearest);
+    }
+
+    @Test
+    void put_shouldMoveExistingMerchant() {
+        index.put(3L, 37.5665, 126.9780);
+
+        assertEquals(Optional.of(3L), index.findNearest(37.5665, 126.9781, 50));
+        assertEquals(Optional.of(1L), index.findNearest(37.33625, 127.25300, 500));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_shouldDropMerchantFromIndex() {
+        index.remove(3L);
+
+        assertEquals(Optional.of(1L), index.findNearest(37.33625, 127.25300, 500));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void find_shouldReturnDetachedCopyOfIndexedMerchant() {
+        Merchant merchant = new Merchant(9L, "green cafe", "CAFE", new BigDecimal("37.3360000"),
+                new BigDecimal("127.2520000"), "yongin", Merchant.EsgTier.A);
+        index.put(merchant);
+
+        Merchant found = index.find(9L).orElseThrow();
+        found.setName("changed");
+
+        assertNotSame(merchant, found);
+        assertEquals("green cafe", index.find(9L).orElseThrow().getName());
+        assertEquals(Merchant.EsgTier.A, found.getEsgTier());
+        assertEquals(Optional.of(9L), index.findNearest(37.336, 127.252, 10));
+        assertTrue(index.find(1L).isEmpty()); // indexed by coordinates only
+
+        index.remove(9L);
+        assertTrue(index.find(9L).isEmpty());
+    }
+
+    @Test
+    void updateMerchant_shouldLeaveIndexUntouchedWhenTransactionRollsBack() {
+        AdminService adminService = adminServiceFor(new Merchant(3L, "green cafe", "CAFE", new BigDecimal("37.3362200"),
+                new BigDecimal("127.2549500"), "yongin", Merchant.EsgTier.A));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            adminService.updateMerchant(3L, movedToSeoul());
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Optional.of(3L), index.findNearest(37.33625, 127.25500, 150));
+        assertTrue(index.findNearest(37.5665, 126.9780, 50).isEmpty());
+    }
+
+    @Test
+    void updateMerchant_shouldMoveIndexedMerchantOnceTransactionCommits() {
+        AdminService adminService = adminServiceFor(new Merchant(3L, "green cafe", "CAFE", new BigDecimal("37.3362200"),
+                new BigDecimal("127.2549500"), "yongin", Merchant.EsgTier.A));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            adminService.updateMerchant(3L, movedToSeoul());
+            assertTrue(index.findNearest(37.5665, 126.9780, 50).isEmpty()); // not before the commit
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Optional.of(3L), index.findNearest(37.5665, 126.9780, 50));
+    }
+
+    private AdminService adminServiceFor(Merchant stored) {
+        MerchantRepository merchantRepository = mock(MerchantRepository.class);
+        when(merchantRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+        when(merchantRepository.save(any(Merchant.class))).thenAnswer(inv -> inv.getArgument(0));
+        return new AdminService(merchantRepository, null, null, index, null, null, null, null, null, null, null, null);
+    }
+
+    private static AdminMerchantDto movedToSeoul() {
+        AdminMerchantDto dto = new AdminMerchantDto();
+        dto.setName("green cafe");
+        dto.setCategoryCode("CAFE");
+        dto.setLat(new BigDecimal("37.5665000"));
+        dto.setLng(new BigDecimal("126.9780000"));
+        dto.setRegion("seoul");
+        dto.setEsgTier(Merchant.EsgTier.A);
+        return dto;
+    }
+}
@@ -0,0 +1,211 @@
+package app.greenpoint.service;
+
+import app.greenpoint.repository.AppUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PointLeaderboardTest {
+
+    private PointLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new PointLeaderboard(null);
+    }
+
+    @Test
+    void page_shouldOrderByPointsThenUserId() {
+        leaderboard.update(1L, "a", 300);
+        leaderboard.update(2L, "b", 500);
+        leaderboard.update(3L, "c", 300);
+        leaderboard.update(4L, "d", 100);
+
+        List<PointLeaderboard.Entry> page = leaderboard.page(0, 10);
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), page.stream().map(PointLeaderboard.Entry::userId).toList());
+        assertEquals(List.of(3L, 4L), leaderboard.page(2, 2).stream().map(PointLeaderboard.Entry::userId).toList());
+        assertTrue(leaderboard.page(4, 10).isEmpty());
+    }
+
+    @Test
+    void page_shouldShareCompetitionRanksAcrossPages() {
+        leaderboard.update(1L, "a", 500);
+        leaderboard.update(2L, "b", 300);
+        leaderboard.update(3L, "c", 300);
+        leaderboard.update(4L, "d", 300);
+        leaderboard.update(5L, "e", 100);
+
+        assertEquals(List.of(1L, 2L, 2L), leaderboard.page(0, 3).stream().map(PointLeaderboard.Entry::rank).toList());
+        assertEquals(List.of(2L, 5L), leaderboard.page(3, 2).stream().map(PointLeaderboard.Entry::rank).toList());
+        assertEquals(leaderboard.standingOf(4L).orElseThrow().rank(), leaderboard.page(3, 1).get(0).rank());
+    }
+
+    @Test
+    void standingFor_shouldRankMissingUserWithoutAddingThem() {
+        leaderboard.update(1L, "a", 500);
+        leaderboard.update(2L, "b", 300);
+        leaderboard.update(3L, "c", 100);
+
+        PointLeaderboard.Standing standing = leaderboard.standingFor(300);
+
+        assertEquals(2, standing.rank());
+        assertEquals(4, standing.totalUsers());
+        assertEquals(1, standing.usersBelow());
+        assertEquals(100.0 / 3, standing.percentile(), 1e-9);
+        assertEquals(1, leaderboard.standingFor(900).rank());
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    void update_shouldRepositionUser() {
+        leaderboard.update(1L, "a", 300);
+        leaderboard.update(2L, "b", 500);
+
+        leaderboard.update(1L, "a", 1200);
+
+        assertEquals(1, leaderboard.positionOf(1L));
+        assertEquals(2, leaderboard.positionOf(2L));
+        assertEquals(2, leaderboard.page(0, 1).get(0).level());
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    void standingOf_shouldShareRankBetweenTiedUsers() {
+        leaderboard.update(1L, "a", 300);
+        leaderboard.update(2L, "b", 500);
+        leaderboard.update(3L, "c", 300);
+        leaderboard.update(4L, "d", 100);
+
+        PointLeaderboard.Standing standing = leaderboard.standingOf(3L).orElseThrow();
+
+        assertEquals(2, standing.rank());
+        assertEquals(300, standing.points());
+        assertEquals(4, standing.totalUsers());
+        assertEquals(1, standing.usersBelow());
+        assertEquals(100.0 / 3, standing.percentile(), 1e-9);
+        assertEquals(100.0 / 3, leaderboard.standingOf(1L).orElseThrow().percentile(), 1e-9);
+        assertEquals(100.0, leaderboard.standingOf(2L).orElseThrow().percentile(), 1e-9);
+        assertEquals(0.0, leaderboard.standingOf(4L).orElseThrow().percentile(), 1e-9);
+        assertEquals(3, leaderboard.countAbove(100));
+        assertTrue(leaderboard.standingOf(9L).isEmpty());
+    }
+
+    @Test
+    void standingOf_shouldNotCountTiedUsersAsBelow() {
+        leaderboard.update(1L, "a", 10);
+        for (long userId = 2; userId <= 100; userId++) {
+            leaderboard.update(userId, "u" + userId, 0);
+        }
+
+        assertEquals(0.0, leaderboard.standingOf(2L).orElseThrow().percentile(), 1e-9);
+        assertEquals(100.0, leaderboard.standingOf(1L).orElseThrow().percentile(), 1e-9);
+    }
+
+    @Test
+    void applyDelta_shouldCommuteAcrossOutOfOrderEvents() {
+        leaderboard.update(1L, "a", 100);
+
+        // Two awards committed concurrently; their callbacks arrive in reverse order
+        leaderboard.applyDelta(1L, "a", 50, 200);
+        leaderboard.applyDelta(1L, "a", 50, 150);
+
+        assertEquals(200, leaderboard.standingOf(1L).orElseThrow().points());
+    }
+
+    @Test
+    void load_shouldReplayChangesMadeDuringTheReadExactlyOnce() {
+        // User 1 ends at 180 in the table. The award to 150 committed before the read, but its callback only
+        // runs while the read is in progress; the award to 180 commits after the read.
+        // User 2 signs up after the read.
+        leaderboard = new PointLeaderboard(repositoryReturning(() -> {
+            leaderboard.applyDelta(1L, "a", 50, 150);
+            leaderboard.applyDelta(1L, "a", 30, 180);
+            leaderboard.applyDelta(2L, "b", 0, 0);
+            leaderboard.applyDelta(2L, "b", 20, 20);
+            return List.of(pointsView(1L, "a", 150));
+        }));
+        leaderboard.update(1L, "a", 100);
+
+        leaderboard.load();
+
+        assertEquals(180, leaderboard.standingOf(1L).orElseThrow().points());
+        assertEquals(20, leaderboard.standingOf(2L).orElseThrow().points());
+        assertEquals(2, leaderboard.size());
+
+        // Outside a reload, changes are plain deltas again
+        leaderboard.applyDelta(1L, "a", 10, 190);
+        assertEquals(190, leaderboard.standingOf(1L).orElseThrow().points());
+    }
+
+    @Test
+    void remove_shouldDropUser() {
+        leaderboard.update(1L, "a", 300);
+        leaderboard.update(2L, "b", 500);
+
+        leaderboard.remove(2L);
+
+        assertEquals(-1, leaderboard.positionOf(2L));
+        assertEquals(1, leaderboard.positionOf(1L));
+    }
+
+    @Test
+    void shouldMatchFullSortUnderRandomUpdates() {
+        Random random = new Random(42);
+        Map<Long, Integer> points = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long userId = random.nextInt(1_000);
+            int value = random.nextInt(2_000);
+            points.put(userId, value);
+            leaderboard.update(userId, "u" + userId, value);
+        }
+
+        List<Long> expected = new ArrayList<>(points.keySet());
+        expected.sort(Comparator.<Long>comparingInt(points::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(expected, leaderboard.page(0, expected.size()).stream().map(PointLeaderboard.Entry::userId).toList());
+        for (int i = 0; i < expected.size(); i += 37) {
+            assertEquals(i + 1, leaderboard.positionOf(expected.get(i)));
+        }
+    }
+
+    private static AppUserRepository repositoryReturning(Supplier<List<AppUserRepository.PointsView>> rows) {
+        return (AppUserRepository) Proxy.newProxyInstance(AppUserRepository.class.getClassLoader(),
+                new Class<?>[]{AppUserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllProjectedBy")) {
+                        return rows.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static AppUserRepository.PointsView pointsView(long id, String nickname, int points) {
+        return new AppUserRepository.PointsView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getNickname() {
+                return nickname;
+            }
+
+            @Override
+            public int getPoints() {
+                return points;
+            }
+        };
+    }
+}
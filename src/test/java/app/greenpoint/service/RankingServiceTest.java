@@ -0,0 +1,221 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.RankingSnapshot;
+import app.greenpoint.dto.RankingItemDto;
+import app.greenpoint.repository.RankingSnapshotRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import app.greenpoint.repository.RewardPointRepository.MonthlyPointsView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankingServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void collectBoards_shouldKeepTopUsersOverallAndPerRegion() {
+        List<MonthlyPointsView> rows = List.of(
+                view(1L, "seoul", 500),
+                view(2L, "busan", 400),
+                view(3L, "seoul", 300),
+                view(4L, "seoul", 200),
+                view(5L, null, 100));
+
+        Map<String, List<RankingService.SnapshotEntry>> boards = RankingService.collectBoards(rows.iterator(), 2);
+
+        assertEquals(List.of(RankingService.ALL_REGIONS, "seoul", "busan"), List.copyOf(boards.keySet()));
+        assertEquals(List.of(1L, 2L), userIds(boards.get(RankingService.ALL_REGIONS)));
+        assertEquals(List.of(1L, 3L), userIds(boards.get("seoul")));
+        assertEquals(List.of(2L), userIds(boards.get("busan")));
+    }
+
+    @Test
+    void rank_shouldShareRanksOnEqualPointsAcrossPages() {
+        List<RankingService.SnapshotEntry> entries = List.of(
+                entry(1L, 500), entry(2L, 300), entry(3L, 300), entry(4L, 300), entry(5L, 100));
+
+        List<RankingItemDto> secondPage = RankingService.rank(entries, 2, 2);
+
+        assertEquals(List.of(2, 2), secondPage.stream().map(RankingItemDto::getRank).toList());
+        assertEquals(List.of(5), RankingService.rank(entries, 4, 2).stream().map(RankingItemDto::getRank).toList());
+        assertTrue(RankingService.rank(entries, 10, 2).isEmpty());
+    }
+
+    @Test
+    void encode_shouldRoundTripAndTrimToColumnSize() {
+        List<RankingService.SnapshotEntry> entries = List.of(
+                new RankingService.SnapshotEntry(1L, "\"quoted\" 닉네임", 3, 1200), entry(2L, 900));
+
+        String json = RankingService.encode(objectMapper, entries);
+
+        assertEquals(entries, RankingService.decode(objectMapper, json));
+
+        List<RankingService.SnapshotEntry> many = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            many.add(new RankingService.SnapshotEntry(i, "user-with-a-long-nickname-" + i, 5, 10_000 - i));
+        }
+        String trimmed = RankingService.encode(objectMapper, many);
+        List<RankingService.SnapshotEntry> decoded = RankingService.decode(objectMapper, trimmed);
+
+        assertTrue(trimmed.length() <= RankingService.MAX_SNAPSHOT_BYTES);
+        assertTrue(decoded.size() < many.size());
+        assertEquals(many.subList(0, decoded.size()), decoded);
+    }
+
+    @Test
+    void getMonthlyRanking_shouldAggregateTheCurrentMonthOncePerTtl() {
+        AtomicInteger aggregations = new AtomicInteger();
+        RankingService rankingService = new RankingService(null, null, monthlyPoints(aggregations,
+                List.of(view(1L, "seoul", 500), view(2L, "busan", 400), view(3L, "seoul", 300))),
+                null, objectMapper, new TransactionTemplate(noopTransactionManager()));
+        ReflectionTestUtils.setField(rankingService, "snapshotSize", 500);
+        ReflectionTestUtils.setField(rankingService, "liveTtl", Duration.ofMinutes(1));
+        rankingService.initLiveBoards();
+        YearMonth currentMonth = YearMonth.now();
+
+        List<RankingItemDto> firstPage = rankingService.getMonthlyRanking(currentMonth, RankingService.ALL_REGIONS, 0, 2).getTopRankings();
+        List<RankingItemDto> secondPage = rankingService.getMonthlyRanking(currentMonth, RankingService.ALL_REGIONS, 1, 2).getTopRankings();
+        List<RankingItemDto> seoul = rankingService.getMonthlyRanking(currentMonth, "seoul", 0, 10).getTopRankings();
+
+        assertEquals(1, aggregations.get());
+        assertEquals(List.of(1, 2), firstPage.stream().map(RankingItemDto::getRank).toList());
+        assertEquals(List.of(3), secondPage.stream().map(RankingItemDto::getRank).toList());
+        assertEquals(List.of(500, 300), seoul.stream().map(RankingItemDto::getPoints).toList());
+    }
+
+    @Test
+    void getMonthlyRanking_shouldRebuildAColdMonthOnceForConcurrentReaders() throws Exception {
+        CountDownLatch aggregationEntered = new CountDownLatch(1);
+        CountDownLatch aggregationRelease = new CountDownLatch(1);
+        AtomicInteger aggregations = new AtomicInteger();
+        RewardPointRepository rewardPointRepository = (RewardPointRepository) Proxy.newProxyInstance(
+                RewardPointRepository.class.getClassLoader(), new Class<?>[]{RewardPointRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("streamPointsByUser")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    aggregations.incrementAndGet();
+                    aggregationEntered.countDown();
+                    aggregationRelease.await();
+                    return Stream.of(view(1L, "seoul", 500), view(2L, "busan", 400));
+                });
+        List<RankingSnapshot> stored = new CopyOnWriteArrayList<>();
+        RankingService rankingService = new RankingService(null, null, rewardPointRepository, snapshotsIn(stored),
+                objectMapper, new TransactionTemplate(noopTransactionManager()));
+        ReflectionTestUtils.setField(rankingService, "snapshotSize", 500);
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        AtomicReference<List<RankingItemDto>> firstResult = new AtomicReference<>();
+        AtomicReference<List<RankingItemDto>> secondResult = new AtomicReference<>();
+
+        Thread first = new Thread(() -> firstResult.set(
+                rankingService.getMonthlyRanking(lastMonth, RankingService.ALL_REGIONS, 0, 10).getTopRankings()));
+        first.start();
+        aggregationEntered.await();
+        Thread second = new Thread(() -> secondResult.set(
+                rankingService.getMonthlyRanking(lastMonth, "busan", 0, 10).getTopRankings()));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        aggregationRelease.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(1, aggregations.get());
+        assertEquals(3, stored.size());
+        assertEquals(List.of(500, 400), firstResult.get().stream().map(RankingItemDto::getPoints).toList());
+        assertEquals(List.of(400), secondResult.get().stream().map(RankingItemDto::getPoints).toList());
+    }
+
+    private static RankingSnapshotRepository snapshotsIn(List<RankingSnapshot> stored) {
+        return (RankingSnapshotRepository) Proxy.newProxyInstance(RankingSnapshotRepository.class.getClassLoader(),
+                new Class<?>[]{RankingSnapshotRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findFirstByRegionAndPeriodYmOrderByIdDesc" -> stored.stream()
+                            .filter(snapshot -> snapshot.getRegion().equals(args[0]) && snapshot.getPeriodYm().equals(args[1]))
+                            .findFirst();
+                    case "existsByPeriodYm" -> stored.stream().anyMatch(snapshot -> snapshot.getPeriodYm().equals(args[0]));
+                    case "deleteByPeriodYmIn" -> {
+                        int before = stored.size();
+                        stored.removeIf(snapshot -> ((List<?>) args[0]).contains(snapshot.getPeriodYm()));
+                        yield before - stored.size();
+                    }
+                    case "saveAll" -> {
+                        ((Iterable<?>) args[0]).forEach(snapshot -> stored.add((RankingSnapshot) snapshot));
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static RewardPointRepository monthlyPoints(AtomicInteger aggregations, List<MonthlyPointsView> rows) {
+        return (RewardPointRepository) Proxy.newProxyInstance(RewardPointRepository.class.getClassLoader(),
+                new Class<?>[]{RewardPointRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("streamPointsByUser")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    aggregations.incrementAndGet();
+                    return rows.stream();
+                });
+    }
+
+    private static PlatformTransactionManager noopTransactionManager() {
+        return (PlatformTransactionManager) Proxy.newProxyInstance(PlatformTransactionManager.class.getClassLoader(),
+                new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> method.getName().equals("getTransaction") ? new SimpleTransactionStatus() : null);
+    }
+
+    private static List<Long> userIds(List<RankingService.SnapshotEntry> entries) {
+        return entries.stream().map(RankingService.SnapshotEntry::userId).toList();
+    }
+
+    private static RankingService.SnapshotEntry entry(long userId, long points) {
+        return new RankingService.SnapshotEntry(userId, "user" + userId, 1, points);
+    }
+
+    private static MonthlyPointsView view(long userId, String region, long points) {
+        return new MonthlyPointsView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getNickname() {
+                return "user" + userId;
+            }
+
+            @Override
+            public String getRegion() {
+                return region;
+            }
+
+            @Override
+            public int getLevel() {
+                return 1;
+            }
+
+            @Override
+            public long getPoints() {
+                return points;
+            }
+        };
+    }
+}
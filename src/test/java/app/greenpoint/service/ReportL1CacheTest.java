@@ -0,0 +1,81 @@
+package app.greenpoint.service;
+
+import app.greenpoint.dto.ReportResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportL1CacheTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-10-15T03:00:00Z"), ZoneId.of("Asia/Seoul"));
+
+    private ReportL1Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReportL1Cache(1_000_000, Duration.ofSeconds(60), Duration.ofHours(6), CLOCK);
+    }
+
+    @Test
+    void get_shouldReturnCachedInstanceAndRecordStats() {
+        ReportResponseDto report = report("2025-09");
+        cache.put(1L, "2025-09", report);
+
+        assertSame(report, cache.get(1L, "2025-09"));
+        assertNull(cache.get(2L, "2025-09"));
+
+        assertEquals(1, cache.stats().getHitCount());
+        assertEquals(1, cache.stats().getMissCount());
+    }
+
+    @Test
+    void isLive_shouldTreatCurrentAndFuturePeriodsAsLive() {
+        assertTrue(cache.isLive("2025-10"));
+        assertTrue(cache.isLive("2025-10-15"));
+        assertFalse(cache.isLive("2025-09"));
+        assertFalse(cache.isLive("2025-10-14"));
+    }
+
+    @Test
+    void onUserPointsChanged_shouldEvictOnlyLivePeriodsOfThatUser() {
+        cache.put(1L, "2025-10", report("2025-10"));
+        cache.put(1L, "2025-10-15", report("2025-10-15"));
+        cache.put(1L, "2025-09", report("2025-09"));
+        cache.put(2L, "2025-10", report("2025-10"));
+
+        cache.onUserPointsChanged(new UserPointsChangedEvent(1L, "a", 10, 110));
+
+        assertNull(cache.get(1L, "2025-10"));
+        assertNull(cache.get(1L, "2025-10-15"));
+        assertEquals("2025-09", cache.get(1L, "2025-09").getPeriod());
+        assertEquals("2025-10", cache.get(2L, "2025-10").getPeriod());
+    }
+
+    @Test
+    void invalidatePeriod_shouldDropEveryUsersEntry() {
+        cache.put(1L, "2025-10-14", report("2025-10-14"));
+        cache.put(2L, "2025-10-14", report("2025-10-14"));
+        cache.put(2L, "2025-10-13", report("2025-10-13"));
+
+        cache.invalidatePeriod("2025-10-14");
+
+        assertNull(cache.get(1L, "2025-10-14"));
+        assertNull(cache.get(2L, "2025-10-14"));
+        assertEquals("2025-10-13", cache.get(2L, "2025-10-13").getPeriod());
+    }
+
+    private static ReportResponseDto report(String period) {
+        return ReportResponseDto.builder().period(period).categoryBreakdown(List.of()).topMerchants(List.of()).build();
+    }
+}
@@ -0,0 +1,89 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.ReportCache;
+import app.greenpoint.dto.CategoryBreakdownDto;
+import app.greenpoint.dto.ReportResponseDto;
+import app.greenpoint.dto.TopMerchantDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportPayloadCodecTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new ParameterNamesModule()).build();
+    private final ReportPayloadCodec codec = new ReportPayloadCodec(objectMapper, 512);
+
+    @Test
+    void encode_shouldRoundTripSmallReportUncompressed() {
+        ReportResponseDto report = report(2);
+
+        byte[] encoded = codec.encode(report);
+
+        assertEquals(ReportPayloadCodec.FORMAT_VERSION, encoded[0]);
+        assertEquals(0, encoded[1] & ReportPayloadCodec.FLAG_DEFLATE);
+        assertSameReport(report, codec.decode(encoded));
+    }
+
+    @Test
+    void encode_shouldDeflateLargeReportsAndBeSmallerThanJson() throws Exception {
+        ReportResponseDto report = report(40);
+
+        byte[] encoded = codec.encode(report);
+        byte[] json = objectMapper.writeValueAsString(report).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(ReportPayloadCodec.FLAG_DEFLATE, encoded[1] & ReportPayloadCodec.FLAG_DEFLATE);
+        assertTrue(encoded.length < json.length / 2, encoded.length + " vs " + json.length);
+        assertSameReport(report, codec.decode(encoded));
+    }
+
+    @Test
+    void decode_shouldReadLegacyJsonRows() throws Exception {
+        ReportResponseDto report = report(3);
+        ReportCache legacy = ReportCache.builder().payloadJson(objectMapper.writeValueAsString(report)).build();
+
+        assertSameReport(report, codec.decode(legacy));
+    }
+
+    @Test
+    void decode_shouldRejectUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[]{9, 0, 1}));
+    }
+
+    private static ReportResponseDto report(int rows) {
+        List<CategoryBreakdownDto> categories = new ArrayList<>();
+        List<TopMerchantDto> merchants = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            categories.add(new CategoryBreakdownDto("CATEGORY_" + i, i, i * 10));
+            merchants.add(new TopMerchantDto("Merchant " + i, i, i * 10));
+        }
+        return ReportResponseDto.builder()
+                .period("2025-10")
+                .totalSpend(123_000)
+                .greenMerchantsUsed(3)
+                .carbonSavedKg(1.25)
+                .categoryBreakdown(categories)
+                .topMerchants(merchants)
+                .esgScoreTotal(25)
+                .build();
+    }
+
+    private static void assertSameReport(ReportResponseDto expected, ReportResponseDto actual) {
+        assertEquals(expected.getPeriod(), actual.getPeriod());
+        assertEquals(expected.getTotalSpend(), actual.getTotalSpend());
+        assertEquals(expected.getGreenMerchantsUsed(), actual.getGreenMerchantsUsed());
+        assertEquals(expected.getCarbonSavedKg(), actual.getCarbonSavedKg());
+        assertEquals(expected.getEsgScoreTotal(), actual.getEsgScoreTotal());
+        assertEquals(expected.getCategoryBreakdown().size(), actual.getCategoryBreakdown().size());
+        assertEquals(expected.getTopMerchants().get(expected.getTopMerchants().size() - 1).getName(),
+                actual.getTopMerchants().get(actual.getTopMerchants().size() - 1).getName());
+    }
+}
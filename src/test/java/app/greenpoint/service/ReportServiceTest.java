@@ -0,0 +1,152 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.RewardPoint;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.CategoryBreakdownDto;
+import app.greenpoint.dto.ReportResponseDto;
+import app.greenpoint.dto.TopMerchantDto;
+import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.ReportCacheRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import app.greenpoint.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+
+    private final AppUserRepository appUserRepository = mock(AppUserRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final RewardPointRepository rewardPointRepository = mock(RewardPointRepository.class);
+    private final ReportCacheRepository reportCacheRepository = mock(ReportCacheRepository.class);
+
+    @Test
+    void closedMonthReport_shouldMatchLiveReportOverTheSameTransactions() {
+        AppUser user = AppUser.builder().id(7L).nickname("user").build();
+        Merchant eco = merchant(10L, "eco", "ECO", Merchant.EsgTier.A);
+        Merchant mart = merchant(20L, "mart", "FOOD", Merchant.EsgTier.C);
+        List<Transaction> transactions = List.of(
+                transaction(1L, user, eco, 1000, Transaction.Status.CONFIRMED),
+                transaction(2L, user, mart, 500, Transaction.Status.CONFIRMED),
+                transaction(3L, user, eco, 2000, Transaction.Status.CONFIRMED),
+                transaction(4L, user, mart, 9000, Transaction.Status.PENDING), // e.g. an async submission not yet awarded
+                transaction(5L, user, eco, 7000, Transaction.Status.REJECTED)); // e.g. a failed KakaoPay ready
+        Map<Long, RewardPoint> rewards = Map.of(
+                1L, reward(transactions.get(0), 4),
+                2L, reward(transactions.get(1), 1),
+                3L, reward(transactions.get(2), 5));
+
+        when(appUserRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(appUserRepository.existsById(7L)).thenReturn(true);
+        when(reportCacheRepository.findByUserAndPeriod(any(), any())).thenReturn(Optional.empty());
+        when(transactionRepository.findAllByUserAndStatusAndTxTimeBetween(eq(user), any(), any(), any())).thenAnswer(inv ->
+                transactions.stream().filter(t -> t.getStatus() == inv.getArgument(1)).toList());
+        when(rewardPointRepository.findAllByTransactionIn(anyList())).thenAnswer(inv ->
+                inv.<List<Transaction>>getArgument(0).stream().map(t -> rewards.get(t.getId())).toList());
+        when(transactionRepository.findContributions(eq(7L), any(), any(), any())).thenAnswer(inv ->
+                transactions.stream().filter(t -> t.getStatus() == inv.getArgument(1))
+                        .map(t -> contribution(t, rewards.get(t.getId())))
+                        .toList());
+
+        LiveMonthAggregator liveMonthAggregator = new LiveMonthAggregator(transactionRepository, appUserRepository);
+        ReportService reportService = new ReportService(appUserRepository, transactionRepository, rewardPointRepository,
+                reportCacheRepository, mock(ReportPayloadCodec.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(ReportL1Cache.class), liveMonthAggregator);
+
+        ReportResponseDto live = reportService.getMonthlyReport(7L, YearMonth.now().toString());
+        ReportResponseDto closed = reportService.getMonthlyReport(7L, YearMonth.now().minusMonths(1).toString());
+
+        assertEquals(3500, live.getTotalSpend());
+        assertEquals(summary(live), summary(closed));
+    }
+
+    private static String summary(ReportResponseDto report) {
+        return report.getTotalSpend() + " " + report.getEsgScoreTotal() + " " + report.getGreenMerchantsUsed() + " "
+                + report.getCarbonSavedKg() + " "
+                + report.getCategoryBreakdown().stream().map(ReportServiceTest::summary).collect(Collectors.joining(",")) + " "
+                + report.getTopMerchants().stream().map(ReportServiceTest::summary).collect(Collectors.joining(","));
+    }
+
+    private static String summary(CategoryBreakdownDto category) {
+        return category.getCode() + ":" + category.getCount() + ":" + category.getPoints();
+    }
+
+    private static String summary(TopMerchantDto merchant) {
+        return merchant.getName() + ":" + merchant.getVisits() + ":" + merchant.getPoints();
+    }
+
+    private static Merchant merchant(long id, String name, String categoryCode, Merchant.EsgTier tier) {
+        return Merchant.builder().id(id).name(name).categoryCode(categoryCode).esgTier(tier).build();
+    }
+
+    private static Transaction transaction(long id, AppUser user, Merchant merchant, int amount, Transaction.Status status) {
+        return Transaction.builder().id(id).user(user).merchant(merchant).amount(amount).status(status)
+                .txTime(LocalDateTime.now()).build();
+    }
+
+    private static RewardPoint reward(Transaction transaction, int esgScore) {
+        return RewardPoint.builder().transaction(transaction).esgScore(esgScore)
+                .points(esgScore * TransactionService.POINT_MULTIPLIER).build();
+    }
+
+    private static TransactionRepository.ContributionView contribution(Transaction transaction, RewardPoint reward) {
+        Merchant merchant = transaction.getMerchant();
+        return new TransactionRepository.ContributionView() {
+            @Override
+            public Long getTxId() {
+                return transaction.getId();
+            }
+
+            @Override
+            public int getAmount() {
+                return transaction.getAmount();
+            }
+
+            @Override
+            public Long getMerchantId() {
+                return merchant.getId();
+            }
+
+            @Override
+            public String getMerchantName() {
+                return merchant.getName();
+            }
+
+            @Override
+            public String getCategoryCode() {
+                return merchant.getCategoryCode();
+            }
+
+            @Override
+            public Merchant.EsgTier getEsgTier() {
+                return merchant.getEsgTier();
+            }
+
+            @Override
+            public int getEsgScore() {
+                return reward != null ? reward.getEsgScore() : 0;
+            }
+
+            @Override
+            public int getPoints() {
+                return reward != null ? reward.getPoints() : 0;
+            }
+        };
+    }
+}
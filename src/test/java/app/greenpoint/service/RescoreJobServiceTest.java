@@ -0,0 +1,58 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Merchant;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.repository.ReportCacheRepositoryCustom.CacheKey;
+import app.greenpoint.repository.RewardPointRepositoryCustom.AwardedRow;
+import app.greenpoint.repository.RewardPointRepositoryCustom.ScoreUpdate;
+import app.greenpoint.repository.TransactionRepositoryCustom.ScoringRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RescoreJobServiceTest {
+
+    @Test
+    void plan_shouldSkipUnchangedScores() {
+        List<AwardedRow> rows = List.of(awarded(10L, 1L, 1L, 30, LocalDateTime.of(2025, 10, 31, 9, 0)));
+
+        RescoreJobService.Adjustments adjustments = RescoreJobService.plan(7L, rows, tx -> 30);
+
+        assertTrue(adjustments.scoreUpdates().isEmpty());
+        assertTrue(adjustments.ledger().isEmpty());
+        assertTrue(adjustments.pointsByUser().isEmpty());
+        assertTrue(adjustments.staleReports().isEmpty());
+        assertTrue(adjustments.staleMonths().isEmpty());
+    }
+
+    @Test
+    void plan_shouldNetPointsPerUserAndCollectStaleReports() {
+        List<AwardedRow> rows = List.of(
+                awarded(10L, 1L, 2L, 30, LocalDateTime.of(2025, 10, 31, 9, 0)),
+                awarded(11L, 2L, 1L, 30, LocalDateTime.of(2025, 10, 31, 10, 0)),
+                awarded(12L, 3L, 2L, 40, LocalDateTime.of(2025, 11, 1, 8, 0)));
+        Map<Long, Integer> newScores = Map.of(1L, 35, 2L, 30, 3L, 38);
+
+        RescoreJobService.Adjustments adjustments = RescoreJobService.plan(7L, rows, tx -> newScores.get(tx.txId()));
+
+        assertEquals(List.of(new ScoreUpdate(10L, 35, 350), new ScoreUpdate(12L, 38, 380)), adjustments.scoreUpdates());
+        assertEquals(Map.of(2L, 50 - 20), adjustments.pointsByUser());
+        assertEquals(List.of(new CacheKey(2L, "2025-10"), new CacheKey(2L, "2025-10-31"),
+                new CacheKey(2L, "2025-11"), new CacheKey(2L, "2025-11-01")), adjustments.staleReports());
+        assertEquals(List.of("2025-10", "2025-11"), adjustments.staleMonths());
+        assertEquals("{\"type\":\"RESCORE\",\"jobId\":7,\"oldScore\":30,\"newScore\":35,\"oldPoints\":300,\"newPoints\":350}",
+                adjustments.ledger().get(0).detailsJson());
+        assertEquals(3L, adjustments.ledger().get(1).txId());
+    }
+
+    private static AwardedRow awarded(long pointId, long txId, long userId, int esgScore, LocalDateTime txTime) {
+        ScoringRow tx = new ScoringRow(txId, userId, 990, txTime, Transaction.Source.MOCK, 7L, "CAFE", "Seoul",
+                Merchant.EsgTier.A, "Seoul");
+        return new AwardedRow(pointId, esgScore, esgScore * TransactionService.POINT_MULTIPLIER, tx);
+    }
+}
@@ -0,0 +1,84 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.CursorPageDto;
+import app.greenpoint.dto.TransactionHistoryDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionCursorTest {
+
+    @Test
+    void encode_shouldRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 10, 31, 9, 5, 7, 123_000_000), 42L);
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, TransactionCursor.decode(token));
+        assertFalse(token.contains("=") || token.contains("+") || token.contains("/")); // safe in a query string
+        assertEquals(new TransactionCursor(LocalDateTime.of(2025, 10, 31, 0, 0), 1L),
+                TransactionCursor.decode(new TransactionCursor(LocalDateTime.of(2025, 10, 31, 0, 0), 1L).encode()));
+    }
+
+    @Test
+    void decode_shouldRejectMalformedTokens() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2025-10-31T09:00".getBytes(StandardCharsets.UTF_8));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday_42".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("2025-10-31T09:00_x".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : List.of("not base64!", "", noSeparator, badTime, badId)) {
+            assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(token), token);
+        }
+    }
+
+    @Test
+    void cursor_shouldPageThroughRowsWithEqualTxTimeWithoutGapsOrRepeats() {
+        LocalDateTime sameTime = LocalDateTime.of(2025, 10, 31, 12, 0);
+        List<TransactionHistoryDto> table = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            table.add(row(id, id <= 5 ? sameTime : sameTime.minusMinutes(id)));
+        }
+        assertNotEquals(new TransactionCursor(sameTime, 5L).encode(), new TransactionCursor(sameTime, 4L).encode());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<TransactionHistoryDto> page = CursorPageDto.of(historyPage(table, cursor, 3), 2,
+                    r -> new TransactionCursor(r.getTxTime(), r.getTxId()).encode());
+            page.getItems().forEach(r -> seen.add(r.getTxId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L, 6L, 7L), seen);
+    }
+
+    /**
+     * Same ordering and keyset predicate as TransactionRepository.findHistoryPage / findHistoryPageAfter.
+     */
+    private static List<TransactionHistoryDto> historyPage(List<TransactionHistoryDto> table, String cursor, int limit) {
+        TransactionCursor after = cursor != null ? TransactionCursor.decode(cursor) : null;
+        return table.stream()
+                .filter(t -> after == null || t.getTxTime().isBefore(after.txTime())
+                        || (t.getTxTime().equals(after.txTime()) && t.getTxId() < after.txId()))
+                .sorted(Comparator.comparing(TransactionHistoryDto::getTxTime).reversed()
+                        .thenComparing(TransactionHistoryDto::getTxId, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    private static TransactionHistoryDto row(long txId, LocalDateTime txTime) {
+        return new TransactionHistoryDto(txId, txTime, 1000, Transaction.Source.MOCK, Transaction.Status.CONFIRMED,
+                "m", "c", 10, 100);
+    }
+}
@@ -0,0 +1,326 @@
+package app.greenpoint.service;
+
+import app.greenpoint.domain.AppUser;
+import app.greenpoint.domain.IdGenerators;
+import app.greenpoint.domain.RewardPoint;
+import app.greenpoint.domain.Transaction;
+import app.greenpoint.dto.TransactionBatchItemDto;
+import app.greenpoint.dto.TransactionBatchItemResultDto;
+import app.greenpoint.dto.TransactionBatchResultDto;
+import app.greenpoint.dto.TransactionRequestDto;
+import app.greenpoint.dto.TransactionResponseDto;
+import app.greenpoint.dto.kakaopay.KakaoPayApproveResponseDto;
+import app.greenpoint.repository.AppUserRepository;
+import app.greenpoint.repository.IdBlockAllocator;
+import app.greenpoint.repository.MerchantRepository;
+import app.greenpoint.repository.RewardOutboxRepository;
+import app.greenpoint.repository.RewardPointRepository;
+import app.greenpoint.repository.RewardPointRepositoryImpl;
+import app.greenpoint.repository.TransactionRepository;
+import app.greenpoint.repository.TransactionRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTest {
+
+    private static final long TX_ID = 7L;
+
+    private final AppUserRepository appUserRepository = mock(AppUserRepository.class);
+    private final MerchantRepository merchantRepository = mock(MerchantRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final RewardPointRepository rewardPointRepository = mock(RewardPointRepository.class);
+    private final EsgRuleEngine esgRuleEngine = mock(EsgRuleEngine.class);
+    private final KakaoPayService kakaoPayService = mock(KakaoPayService.class);
+    private final MerchantGeoIndex merchantGeoIndex = mock(MerchantGeoIndex.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final RewardOutboxRepository rewardOutboxRepository = mock(RewardOutboxRepository.class);
+
+    private TransactionService transactionService;
+    private AppUser user;
+    private Transaction transaction;
+    private final AtomicReference<RewardPoint> savedReward = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(appUserRepository, merchantRepository, transactionRepository,
+                rewardPointRepository, esgRuleEngine, kakaoPayService, merchantGeoIndex, eventPublisher,
+                new ObjectMapper(), new TransactionTemplate(mock(PlatformTransactionManager.class)), rewardOutboxRepository);
+
+        user = AppUser.builder().id(1L).email("user@example.com").nickname("user").points(100).build();
+        transaction = Transaction.builder()
+                .id(TX_ID)
+                .user(user)
+                .amount(5_000)
+                .source(Transaction.Source.KAKAOPAY)
+                .status(Transaction.Status.PENDING)
+                .tid("tid123")
+                .build();
+        when(transactionRepository.findById(TX_ID)).thenAnswer(inv -> Optional.of(transaction));
+        when(transactionRepository.findByIdForUpdate(TX_ID)).thenAnswer(inv -> Optional.of(transaction));
+        when(esgRuleEngine.score(any(Transaction.class))).thenReturn(3);
+        when(rewardPointRepository.save(any(RewardPoint.class))).thenAnswer(inv -> {
+            savedReward.set(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(rewardPointRepository.findByTransaction(transaction)).thenAnswer(inv -> Optional.ofNullable(savedReward.get()));
+        when(appUserRepository.findPointsById(1L)).thenReturn(130);
+    }
+
+    @Test
+    void approveKakaoPayPayment_shouldNotCallGatewayOrAwardAgainOnceConfirmed() {
+        when(kakaoPayService.approvePayment(any())).thenReturn(approval());
+
+        TransactionResponseDto first = transactionService.approveKakaoPayPayment("pg-token", TX_ID);
+        TransactionResponseDto repeat = transactionService.approveKakaoPayPayment("pg-token", TX_ID);
+
+        assertEquals(Transaction.Status.CONFIRMED, transaction.getStatus());
+        assertEquals("aid123", transaction.getAid());
+        assertEquals(30, first.getPointsEarned());
+        assertEquals(30, repeat.getPointsEarned());
+        assertEquals(3, repeat.getEsgScore());
+        verify(kakaoPayService, times(1)).approvePayment(any());
+        verify(rewardPointRepository, times(1)).save(any(RewardPoint.class));
+        verify(appUserRepository, times(1)).incrementPoints(1L, 30);
+    }
+
+    @Test
+    void approveKakaoPayPayment_shouldShareOneGatewayCallBetweenConcurrentCallbacks() throws Exception {
+        CountDownLatch gatewayEntered = new CountDownLatch(1);
+        CountDownLatch gatewayRelease = new CountDownLatch(1);
+        when(kakaoPayService.approvePayment(any())).thenAnswer(inv -> {
+            gatewayEntered.countDown();
+            gatewayRelease.await();
+            return approval();
+        });
+        AtomicReference<TransactionResponseDto> firstResult = new AtomicReference<>();
+        AtomicReference<TransactionResponseDto> secondResult = new AtomicReference<>();
+
+        Thread first = new Thread(() -> firstResult.set(transactionService.approveKakaoPayPayment("pg-token", TX_ID)));
+        first.start();
+        gatewayEntered.await();
+        Thread second = new Thread(() -> secondResult.set(transactionService.approveKakaoPayPayment("pg-token", TX_ID)));
+        second.start();
+        // The duplicate parks on the in-flight approval rather than reaching the repository or the gateway
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        gatewayRelease.countDown();
+        first.join();
+        second.join();
+
+        assertSame(firstResult.get(), secondResult.get());
+        verify(kakaoPayService, times(1)).approvePayment(any());
+        verify(rewardPointRepository, times(1)).save(any(RewardPoint.class));
+        verify(appUserRepository, times(1)).incrementPoints(1L, 30);
+    }
+
+    @Test
+    void approveKakaoPayPayment_shouldReturnConfirmedResultWhenAnotherInstanceApprovedFirst() {
+        // Another instance confirms the row while this one's duplicate approve is rejected by the gateway
+        when(kakaoPayService.approvePayment(any())).thenAnswer(inv -> {
+            transaction.setStatus(Transaction.Status.CONFIRMED);
+            savedReward.set(RewardPoint.builder().user(user).transaction(transaction).points(30).esgScore(3).build());
+            throw gatewayError(400);
+        });
+
+        TransactionResponseDto response = transactionService.approveKakaoPayPayment("pg-token", TX_ID);
+
+        assertEquals(TX_ID, response.getTxId());
+        assertEquals(30, response.getPointsEarned());
+        verify(kakaoPayService, never()).findApproval(any());
+        verify(rewardPointRepository, never()).save(any(RewardPoint.class));
+        verify(appUserRepository, never()).incrementPoints(anyLong(), anyInt());
+    }
+
+    @Test
+    void approveKakaoPayPayment_shouldConfirmTimedOutApproveThatGatewayReportsPaid() {
+        when(kakaoPayService.approvePayment(any())).thenThrow(sentRequestFailure());
+        when(kakaoPayService.findApproval("tid123")).thenReturn(Optional.of(approval()));
+
+        TransactionResponseDto response = transactionService.approveKakaoPayPayment("pg-token", TX_ID);
+
+        assertEquals(Transaction.Status.CONFIRMED, transaction.getStatus());
+        assertEquals("aid123", transaction.getAid());
+        assertEquals(30, response.getPointsEarned());
+        verify(kakaoPayService, times(1)).approvePayment(any());
+        verify(appUserRepository, times(1)).incrementPoints(1L, 30);
+    }
+
+    @Test
+    void approveKakaoPayPayment_shouldLeavePendingWhenGatewayReportsUnpaid() {
+        WebClientRequestException failure = sentRequestFailure();
+        when(kakaoPayService.approvePayment(any())).thenThrow(failure);
+        when(kakaoPayService.findApproval("tid123")).thenReturn(Optional.empty());
+
+        assertSame(failure, assertThrows(WebClientRequestException.class,
+                () -> transactionService.approveKakaoPayPayment("pg-token", TX_ID)));
+
+        assertEquals(Transaction.Status.PENDING, transaction.getStatus());
+        verify(rewardPointRepository, never()).save(any(RewardPoint.class));
+    }
+
+    @Test
+    void initiateKakaoPayPayment_shouldRejectTransactionWhenReadyFails() {
+        when(appUserRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction saved = inv.getArgument(0);
+            saved.setId(TX_ID);
+            transaction = saved;
+            return saved;
+        });
+        when(kakaoPayService.readyPayment(any())).thenThrow(gatewayError(503));
+        TransactionRequestDto request = new TransactionRequestDto();
+        request.setAmount(5_000);
+
+        assertThrows(WebClientResponseException.class,
+                () -> transactionService.initiateKakaoPayPayment("user@example.com", request));
+
+        assertEquals(Transaction.Status.REJECTED, transaction.getStatus());
+        assertNull(transaction.getTid());
+    }
+
+    @Test
+    void processBatch_shouldRejectUnknownUsersAndAccrueOncePerUser() {
+        AppUser other = AppUser.builder().id(2L).email("other@example.com").nickname("other").points(0).build();
+        when(appUserRepository.findByEmailIn(any())).thenReturn(List.of(user, other));
+        // The JDBC batch writers run against a recording JdbcTemplate and a fixed id block per table
+        IdBlockAllocator idBlockAllocator = mock(IdBlockAllocator.class);
+        when(idBlockAllocator.allocate(IdGenerators.TRANSACTION, 3)).thenReturn(500L);
+        when(idBlockAllocator.allocate(IdGenerators.REWARD_POINT, 3)).thenReturn(900L);
+        Map<String, List<Map<Integer, Object>>> written = new HashMap<>();
+        JdbcTemplate jdbcTemplate = recordingJdbcTemplate(written);
+        TransactionRepositoryImpl transactionWriter = new TransactionRepositoryImpl(jdbcTemplate, idBlockAllocator);
+        RewardPointRepositoryImpl rewardWriter = new RewardPointRepositoryImpl(jdbcTemplate, idBlockAllocator);
+        when(transactionRepository.insertAll(anyList())).thenAnswer(inv -> transactionWriter.insertAll(inv.getArgument(0)));
+        doAnswer(inv -> {
+            rewardWriter.insertAll(inv.getArgument(0));
+            return null;
+        }).when(rewardPointRepository).insertAll(anyList());
+
+        TransactionBatchResultDto result = transactionService.processBatch(List.of(
+                batchItem("user@example.com", 1_000),
+                batchItem("missing@example.com", 2_000),
+                batchItem("other@example.com", 3_000),
+                batchItem("user@example.com", 4_000)));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(3, result.getConfirmed());
+        assertEquals(1, result.getRejected());
+        List<TransactionBatchItemResultDto> results = result.getResults();
+        assertIterableEquals(List.of(0, 1, 2, 3), results.stream().map(TransactionBatchItemResultDto::getIndex).toList());
+        assertIterableEquals(Arrays.asList(500L, null, 501L, 502L),
+                results.stream().map(TransactionBatchItemResultDto::getTxId).toList());
+        assertEquals(Transaction.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("User not found with email: missing@example.com", results.get(1).getError());
+
+        // Only known users' items are stored, and each reward row points at its transaction's reserved id
+        List<Map<Integer, Object>> transactionRows = written.get("transaction");
+        assertIterableEquals(List.of(500L, 501L, 502L), column(transactionRows, 1));
+        assertIterableEquals(List.of(1L, 2L, 1L), column(transactionRows, 2));
+        assertIterableEquals(List.of(1_000, 3_000, 4_000), column(transactionRows, 4));
+        List<Map<Integer, Object>> rewardRows = written.get("reward_point");
+        assertIterableEquals(List.of(900L, 901L, 902L), column(rewardRows, 1));
+        assertIterableEquals(List.of(500L, 501L, 502L), column(rewardRows, 3));
+        assertIterableEquals(List.of(30, 30, 30), column(rewardRows, 4));
+
+        verify(appUserRepository).incrementPoints(1L, 60);
+        verify(appUserRepository).incrementPoints(2L, 30);
+        verify(appUserRepository, times(2)).incrementPoints(anyLong(), anyInt());
+    }
+
+    private static KakaoPayApproveResponseDto approval() {
+        KakaoPayApproveResponseDto response = new KakaoPayApproveResponseDto();
+        response.setAid("aid123");
+        response.setTid("tid123");
+        response.setPayment_method_type("MONEY");
+        return response;
+    }
+
+    private static TransactionBatchItemDto batchItem(String userEmail, int amount) {
+        TransactionBatchItemDto item = new TransactionBatchItemDto();
+        item.setUserEmail(userEmail);
+        item.setAmount(amount);
+        item.setSource(Transaction.Source.NAVERPAY);
+        return item;
+    }
+
+    /** Applies each batch setter to a recording statement and keeps the bound parameters per target table. */
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate recordingJdbcTemplate(Map<String, List<Map<Integer, Object>>> written) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    String table = inv.<String>getArgument(0).split("\\s+")[2];
+                    ParameterizedPreparedStatementSetter<Object> setter = inv.getArgument(3);
+                    List<Map<Integer, Object>> rows = written.computeIfAbsent(table, t -> new ArrayList<>());
+                    for (Object argument : inv.<Collection<Object>>getArgument(1)) {
+                        Map<Integer, Object> row = new HashMap<>();
+                        setter.setValues(mock(PreparedStatement.class, call -> {
+                            if (call.getArguments().length == 2 && call.getArgument(0) instanceof Integer index) {
+                                row.put(index, call.getArgument(1));
+                            }
+                            return null;
+                        }), argument);
+                        rows.add(row);
+                    }
+                    return new int[0][];
+                });
+        return jdbcTemplate;
+    }
+
+    private static List<Object> column(List<Map<Integer, Object>> rows, int index) {
+        return rows.stream().map(row -> row.get(index)).toList();
+    }
+
+    private static WebClientResponseException gatewayError(int status) {
+        return WebClientResponseException.create(status, "gateway error", null, "{}".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+    }
+
+    private static WebClientRequestException sentRequestFailure() {
+        return new WebClientRequestException(new IOException("read timed out"), HttpMethod.POST,
+                URI.create("http://kakaopay/approve"), new HttpHeaders());
+    }
+}